@@ -0,0 +1,95 @@
+package com.automation.benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the benchmarks (any JMH command line options are accepted) and writes
+ * the results as JMH JSON to benchmarks/results/latest.json, or
+ * -Dbenchmark.output. With -Dbenchmark.baseline=previous.json every benchmark
+ * is compared to the baseline and the run exits with 1 if one got slower by
+ * more than -Dbenchmark.threshold percent (default 10).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        Path output = Paths.get(System.getProperty("benchmark.output", "benchmarks/results/latest.json"));
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString())
+                .build();
+        Collection<RunResult> results = new Runner(options).run();
+        System.out.println("Benchmark results written to " + output.toAbsolutePath());
+
+        String baseline = System.getProperty("benchmark.baseline");
+        if (baseline != null && !baseline.trim().isEmpty()) {
+            double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "10"));
+            if (compare(results, Paths.get(baseline.trim()), threshold) > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    /** Print the change of every benchmark against the baseline and return the number of regressions. */
+    private static int compare(Collection<RunResult> results, Path baselineFile, double thresholdPercent)
+            throws IOException {
+        Map<String, Double> baseline = new HashMap<>();
+        List<Map<String, Object>> entries = new Json().toType(
+                new String(Files.readAllBytes(baselineFile), StandardCharsets.UTF_8), Json.LIST_OF_MAPS_TYPE);
+        for (Map<String, Object> entry : entries) {
+            Map<?, ?> metric = (Map<?, ?>) entry.get("primaryMetric");
+            baseline.put(key(String.valueOf(entry.get("benchmark")), String.valueOf(entry.get("mode"))),
+                    ((Number) metric.get("score")).doubleValue());
+        }
+
+        int regressions = 0;
+        System.out.println();
+        System.out.println(String.format("%-70s %12s %12s %8s", "Benchmark", "Baseline", "Current", "Change"));
+        for (RunResult result : results) {
+            String name = result.getParams().getBenchmark();
+            String mode = result.getParams().getMode().shortLabel();
+            double current = result.getPrimaryResult().getScore();
+            Double previous = baseline.get(key(name, mode));
+            if (previous == null || previous == 0) {
+                System.out.println(String.format("%-70s %12s %12.3f %8s", name, "-", current, "new"));
+                continue;
+            }
+            // All modes used here are time per operation, so higher is slower
+            double change = (current - previous) / previous * 100;
+            boolean regressed = change > thresholdPercent;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-70s %12.3f %12.3f %+7.1f%%%s",
+                    name, previous, current, change, regressed ? "  REGRESSION" : ""));
+        }
+        System.out.println(regressions + " regression(s) above " + thresholdPercent + "%");
+        return regressions;
+    }
+
+    private static String key(String benchmark, String mode) {
+        return benchmark + "/" + mode;
+    }
+}
@@ -0,0 +1,38 @@
+package com.automation.benchmarks;
+
+import com.automation.utils.AppiumUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config lookups through AppiumUtils, which every page, wait and factory call makes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigBenchmark {
+
+    @Benchmark
+    public String getProperty() {
+        return AppiumUtils.getProperty("valid.username");
+    }
+
+    @Benchmark
+    public String getPropertyMissingWithDefault() {
+        return AppiumUtils.getProperty("benchmark.missing.key", "fallback");
+    }
+
+    @Benchmark
+    public int getIntProperty() {
+        return AppiumUtils.getIntProperty("wait.present", 10);
+    }
+}
@@ -0,0 +1,70 @@
+package com.automation.benchmarks;
+
+import com.automation.base.TunedHttpClientFactory;
+import com.automation.stub.StubAppiumServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of one Appium command (GET /status) through Selenium's default
+ * HTTP client and through {@link TunedHttpClientFactory}. Runs against the
+ * zero-latency stub, or a real server given as -Dbenchmark.appium.url.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HttpTransportBenchmark {
+
+    @Param({"default", "tuned"})
+    public String transport;
+
+    private StubAppiumServer stub;
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        String url = System.getProperty("benchmark.appium.url", "");
+        if (url.isEmpty()) {
+            stub = StubAppiumServer.start(0, 0, 0, 0);
+            url = stub.getUrl();
+        }
+        HttpClient.Factory factory = "tuned".equals(transport)
+                ? TunedHttpClientFactory.shared() : HttpClient.Factory.createDefault();
+        client = factory.createClient(ClientConfig.defaultConfig().baseUri(new URI(url)));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        client.close();
+        if (stub != null) {
+            stub.stop();
+        }
+    }
+
+    @Benchmark
+    public HttpResponse status() {
+        return client.execute(new HttpRequest(HttpMethod.GET, "/status"));
+    }
+}
@@ -0,0 +1,98 @@
+package com.automation.benchmarks;
+
+import com.automation.pages.ElementCache;
+import com.automation.pages.HomePage;
+import com.automation.pages.LocatorCompiler;
+import com.automation.pages.PageSnapshot;
+import io.appium.java_client.AppiumBy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Locator resolution: XPath compilation, queries against a local page
+ * snapshot, a remote findElement round trip to the stub server, and page
+ * field access with the element cache warm or cold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocatorBenchmark {
+
+    private final By productsTitle = By.xpath("//android.widget.TextView[@text='Products']");
+    private final By storeItems = By.xpath("//android.view.ViewGroup[@content-desc='store item']");
+    private final By menuButton = AppiumBy.accessibilityId("open menu");
+
+    private By compiledTitle;
+    private PageSnapshot snapshot;
+    private HomePage homePage;
+
+    @Setup(Level.Trial)
+    public void fetchSnapshot(StubDriver stub) {
+        compiledTitle = LocatorCompiler.compile(productsTitle);
+        snapshot = PageSnapshot.of(stub.driver);
+        homePage = new HomePage(stub.driver);
+    }
+
+    @Benchmark
+    public By compileXpath() {
+        return LocatorCompiler.compile(productsTitle);
+    }
+
+    @Benchmark
+    public int snapshotFind() {
+        return snapshot.find(productsTitle);
+    }
+
+    @Benchmark
+    public int snapshotCount() {
+        return snapshot.count(storeItems);
+    }
+
+    @Benchmark
+    public int snapshotParse(StubDriver stub) {
+        PageSnapshot.invalidate(stub.driver);
+        return PageSnapshot.of(stub.driver).size();
+    }
+
+    @Benchmark
+    public WebElement findByXpath(StubDriver stub) {
+        return stub.driver.findElement(productsTitle);
+    }
+
+    @Benchmark
+    public WebElement findByCompiledUiSelector(StubDriver stub) {
+        return stub.driver.findElement(compiledTitle);
+    }
+
+    @Benchmark
+    public WebElement findByAccessibilityId(StubDriver stub) {
+        return stub.driver.findElement(menuButton);
+    }
+
+    @Benchmark
+    public int pageListCached() {
+        return homePage.getProductCount();
+    }
+
+    @Benchmark
+    public int pageListUncached(StubDriver stub) {
+        ElementCache.invalidate(stub.driver);
+        return homePage.getProductCount();
+    }
+}
@@ -0,0 +1,45 @@
+package com.automation.benchmarks;
+
+import com.automation.pages.HomePage;
+import com.automation.pages.Pages;
+import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.support.PageFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of getting a page object: the cached factory, a fresh instance bound
+ * from precomputed metadata, and the PageFactory + AppiumFieldDecorator
+ * initialisation the pages used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageConstructionBenchmark {
+
+    @Benchmark
+    public HomePage pagesGet(StubDriver stub) {
+        return Pages.get(stub.driver, HomePage.class);
+    }
+
+    @Benchmark
+    public HomePage newHomePage(StubDriver stub) {
+        return new HomePage(stub.driver);
+    }
+
+    @Benchmark
+    public HomePage pageFactoryInitElements(StubDriver stub) {
+        HomePage page = new HomePage(stub.driver);
+        PageFactory.initElements(new AppiumFieldDecorator(stub.driver), page);
+        return page;
+    }
+}
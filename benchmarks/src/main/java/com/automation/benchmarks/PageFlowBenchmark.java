@@ -0,0 +1,61 @@
+package com.automation.benchmarks;
+
+import com.automation.pages.CartPage;
+import com.automation.pages.HomePage;
+import com.automation.pages.LoginPage;
+import com.automation.pages.Navigator;
+import com.automation.pages.Pages;
+import com.automation.pages.ProductPage;
+import com.automation.utils.AppiumUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete page-object flows from the suite against the zero-latency stub,
+ * i.e. everything a test costs apart from the device itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageFlowBenchmark {
+
+    @Benchmark
+    public boolean loginAndLogout(StubDriver stub) {
+        LoginPage loginPage = new Navigator(stub.driver).navigateTo(LoginPage.class);
+        loginPage.login(AppiumUtils.getProperty("valid.username"), AppiumUtils.getProperty("valid.password"));
+        HomePage homePage = Pages.get(stub.driver, HomePage.class);
+        boolean loggedIn = homePage.isHomePageDisplayed();
+        homePage.logout();
+        return loggedIn;
+    }
+
+    @Benchmark
+    public boolean addToCartAndRemove(StubDriver stub) {
+        new Navigator(stub.driver).navigateTo(HomePage.class).clickProductAtIndex(0);
+        ProductPage productPage = Pages.get(stub.driver, ProductPage.class);
+        productPage.clickAddToCart();
+        productPage.goToCart();
+        CartPage cartPage = Pages.get(stub.driver, CartPage.class);
+        boolean shown = cartPage.isCheckoutButtonDisplayed();
+        cartPage.removeItem();
+        return shown;
+    }
+
+    @Benchmark
+    public String productDetail(StubDriver stub) {
+        new Navigator(stub.driver).navigateTo(HomePage.class).clickProductAtIndex(0);
+        ProductPage productPage = Pages.get(stub.driver, ProductPage.class);
+        String price = productPage.getProductPrice();
+        productPage.clickBack();
+        return price;
+    }
+}
@@ -0,0 +1,64 @@
+package com.automation.benchmarks;
+
+import com.automation.utils.ReportPipeline;
+import com.aventstack.extentreports.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report event writing as ExtentReportManager does it: the cost a test thread
+ * pays per test (start + pass log), and a whole 100-test report written and
+ * flushed to HTML.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportBenchmark {
+
+    @Setup(Level.Iteration)
+    public void startPipeline() {
+        ReportPipeline.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopPipeline() {
+        ReportPipeline.stop();
+    }
+
+    /** Bounded batches so the report does not grow without limit; the score is per 1000 tests. */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = 1000)
+    @Measurement(iterations = 10, batchSize = 1000)
+    public long recordTest() {
+        long testId = ReportPipeline.startTest("benchmarkTest", "Report pipeline benchmark");
+        ReportPipeline.log(testId, Status.PASS, "Test PASSED: benchmarkTest");
+        return testId;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3)
+    @Measurement(iterations = 10)
+    public void writeReportWith100Tests() {
+        for (int i = 0; i < 100; i++) {
+            long testId = ReportPipeline.startTest("test" + i, "Report pipeline benchmark");
+            ReportPipeline.log(testId, Status.INFO, "step 1");
+            ReportPipeline.log(testId, Status.PASS, "Test PASSED: test" + i);
+        }
+        // Flush is part of the measured work; the next iteration starts a new pipeline
+        ReportPipeline.stop();
+    }
+}
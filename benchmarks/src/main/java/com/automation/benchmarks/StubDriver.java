@@ -0,0 +1,39 @@
+package com.automation.benchmarks;
+
+import com.automation.base.Device;
+import com.automation.base.DriverFactory;
+import com.automation.stub.StubAppiumServer;
+import io.appium.java_client.android.AndroidDriver;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * One driver session against the in-process stub server with zero simulated
+ * latency, so benchmarks measure framework and client overhead only.
+ */
+@State(Scope.Benchmark)
+public class StubDriver {
+
+    AndroidDriver driver;
+
+    @Setup(Level.Trial)
+    public void startSession() {
+        System.setProperty("appium.stub.enabled", "true");
+        System.setProperty("stub.latency.ms", "0");
+        System.setProperty("stub.jitter.ms", "0");
+        System.setProperty("stub.latency.session.ms", "0");
+        // Keep instrumentation out of the numbers unless a benchmark asks for it
+        System.setProperty("metrics.enabled", "false");
+        driver = DriverFactory.createDriver(new Device("stub-bench", StubAppiumServer.shared().getUrl(), 8200));
+    }
+
+    @TearDown(Level.Trial)
+    public void quitSession() {
+        if (driver != null) {
+            driver.quit();
+        }
+    }
+}
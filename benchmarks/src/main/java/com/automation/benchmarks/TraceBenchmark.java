@@ -0,0 +1,36 @@
+package com.automation.benchmarks;
+
+import com.automation.utils.Tracer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording one span into the per-thread trace buffer, which every
+ * driver command and page method pays while tracing stays on.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceBenchmark {
+
+    @Benchmark
+    public void recordSpan() {
+        Tracer.end(Tracer.COMMAND, "findElement", Tracer.start());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordSpanFourThreads() {
+        Tracer.end(Tracer.COMMAND, "findElement", Tracer.start());
+    }
+}
@@ -0,0 +1,179 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.utils.AppiumUtils;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Installs the APK under test only on devices that do not already have it.
+ *
+ * The APK (app.path) is hashed once per run. Sessions are started from
+ * app.package / app.activity without the app capability, so Appium neither
+ * uploads nor installs anything; the first session on each device then
+ * compares the hash with a marker file written next to the last install
+ * (app.install.marker.dir) and installs the APK only if the app is missing
+ * or the marker differs. Either way the app data is cleared before the app
+ * is launched, as noReset=false did before. Disable with
+ * app.install.cache.enabled=false.
+ */
+public class AppInstaller {
+
+    private static final Map<String, String> hashes = new ConcurrentHashMap<>();
+    // Devices checked this run, with the APK hash they were found or left with
+    private static final Map<String, String> verified = new ConcurrentHashMap<>();
+    private static final Map<String, ReentrantLock> deviceLocks = new ConcurrentHashMap<>();
+
+    private static final LongAdder installs = new LongAdder();
+    private static final LongAdder skipped = new LongAdder();
+    private static final LongAdder skippedBytes = new LongAdder();
+    private static final LongAdder installMillis = new LongAdder();
+    private static final LongAdder hashMillis = new LongAdder();
+
+    private AppInstaller() {
+    }
+
+    /** Whether sessions should skip the app capability; needs the APK on disk to hash. */
+    public static boolean isEnabled() {
+        return AppiumUtils.getBooleanProperty("app.install.cache.enabled", true) && Files.isRegularFile(apkPath());
+    }
+
+    /** The APK under test; app.path may be absolute or relative to the working directory. */
+    public static Path apkPath() {
+        return Paths.get(System.getProperty("user.dir")).resolve(AppiumUtils.getProperty("app.path"));
+    }
+
+    /**
+     * Make sure the session's device runs the current APK: install it unless
+     * the device already has it, then clear the app data and launch it.
+     */
+    public static void prepare(AndroidDriver driver, Device device) {
+        String appPackage = AppiumUtils.getProperty("app.package");
+        String hash = apkHash();
+        ReentrantLock lock = deviceLocks.computeIfAbsent(device.getUdid(), udid -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (!hash.equals(verified.get(device.getUdid()))) {
+                if (driver.isAppInstalled(appPackage) && hash.equals(installedHash(driver, appPackage))) {
+                    skip(device);
+                } else {
+                    install(driver, device, appPackage, hash);
+                }
+                verified.put(device.getUdid(), hash);
+            } else if (!driver.isAppInstalled(appPackage)) {
+                // Removed since it was checked (e.g. a REINSTALL reset that failed halfway)
+                install(driver, device, appPackage, hash);
+            } else {
+                skip(device);
+            }
+        } finally {
+            lock.unlock();
+        }
+        ResetStrategy.CLEAR_DATA.reset(driver, appPackage);
+    }
+
+    // ======= HASHING =======
+
+    /** SHA-256 of the APK, computed once per file version (path, size and modification time). */
+    static String apkHash() {
+        Path apk = apkPath();
+        try {
+            String key = apk + "|" + Files.size(apk) + "|" + Files.getLastModifiedTime(apk).toMillis();
+            return hashes.computeIfAbsent(key, k -> sha256(apk));
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read APK " + apk + ": " + e.getMessage());
+        }
+    }
+
+    private static String sha256(Path apk) {
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(apk)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            System.out.println("APK " + apk.getFileName() + " sha256 " + hex);
+            return hex.toString();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Cannot hash APK " + apk + ": " + e.getMessage());
+        } finally {
+            hashMillis.add((System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // ======= DEVICE =======
+
+    /** Hash recorded by the last install on the device, or null if there is none. */
+    private static String installedHash(AndroidDriver driver, String appPackage) {
+        try {
+            return new String(driver.pullFile(markerPath(appPackage)), StandardCharsets.UTF_8).trim();
+        } catch (WebDriverException e) {
+            return null;
+        }
+    }
+
+    private static void install(AndroidDriver driver, Device device, String appPackage, String hash) {
+        long start = System.nanoTime();
+        driver.installApp(apkPath().toString());
+        driver.pushFile(markerPath(appPackage), hash.getBytes(StandardCharsets.UTF_8));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        installs.increment();
+        installMillis.add(millis);
+        System.out.println("Installed " + apkPath().getFileName() + " on " + device + " in " + millis + " ms");
+    }
+
+    private static void skip(Device device) {
+        skipped.increment();
+        try {
+            skippedBytes.add(Files.size(apkPath()));
+        } catch (IOException e) {
+            // Only feeds the report
+        }
+        System.out.println("APK already installed on " + device + ", skipping install");
+    }
+
+    private static String markerPath(String appPackage) {
+        String dir = AppiumUtils.getProperty("app.install.marker.dir", "/data/local/tmp/mobile-automation");
+        return dir.replaceAll("/+$", "") + "/" + appPackage + ".sha256";
+    }
+
+    // ======= METRICS =======
+
+    public static long installs() {
+        return installs.sum();
+    }
+
+    public static long skipped() {
+        return skipped.sum();
+    }
+
+    /** Rows (metric, value) for the report. */
+    public static String[][] toTable() {
+        return new String[][]{
+                {"metric", "value"},
+                {"installs", String.valueOf(installs())},
+                {"install ms", String.valueOf(installMillis.sum())},
+                {"sessions that skipped the install", String.valueOf(skipped())},
+                {"APK bytes not uploaded", String.valueOf(skippedBytes.sum())},
+                {"hash ms", String.valueOf(hashMillis.sum())}
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.automation.base;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects how the app is reset before each test method.
+ * A method annotation overrides the class annotation; without either,
+ * app.reset.default from config.properties applies.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface AppReset {
+
+    ResetStrategy value();
+}
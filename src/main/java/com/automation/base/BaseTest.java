@@ -1,68 +1,86 @@
 package com.automation.base;
 
 import io.appium.java_client.android.AndroidDriver;
-import io.appium.java_client.android.options.UiAutomator2Options;
+import com.automation.utils.Tracer;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
-import com.automation.utils.AppiumUtils;
+import org.testng.annotations.BeforeMethod;
 
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.time.Duration;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.EnumSet;
 
 public class BaseTest {
 
     // This driver will be used by all test classes
     protected AndroidDriver driver;
 
-    @BeforeClass
-    public void setUp() throws MalformedURLException {
-        // Read from config.properties
-        String appiumUrl   = AppiumUtils.getProperty("appium.server.url");
-        String platformName = AppiumUtils.getProperty("platform.name");
-        String deviceName   = AppiumUtils.getProperty("device.name");
-        String appPath      = AppiumUtils.getProperty("app.path");
-        String automationName = AppiumUtils.getProperty("automation.name");
+    // Device leased exclusively to this test class while it runs
+    protected Device device;
 
-        // Docker support: override Appium URL from environment variables
-        String appiumHost = System.getenv("APPIUM_HOST");
-        String appiumPort = System.getenv("APPIUM_PORT");
-        if (appiumHost != null && !appiumHost.trim().isEmpty()) {
-            int appiumPortNumber = 4723;
-            if (appiumPort != null && !appiumPort.trim().isEmpty()) {
-                try {
-                    appiumPortNumber = Integer.parseInt(appiumPort.trim());
-                } catch (NumberFormatException e) {
-                    System.out.println("Invalid APPIUM_PORT '" + appiumPort + "', defaulting to 4723");
-                }
-            }
-            appiumUrl = "http://" + appiumHost.trim() + ":" + appiumPortNumber;
-            System.out.println("Using Docker Appium URL: " + appiumUrl);
-        }
+    /** Driver of this test class, e.g. for listeners capturing failure artifacts. */
+    public AndroidDriver getDriver() {
+        return driver;
+    }
 
-        // Configure desired capabilities
-        UiAutomator2Options options = new UiAutomator2Options();
-        options.setPlatformName(platformName);
-        options.setDeviceName(deviceName);
-        options.setApp(System.getProperty("user.dir") + "/" + appPath);
-        options.setAutomationName(automationName);
-        options.setNoReset(false);
+    /** Device leased to this test class, or null outside setUp / tearDown. */
+    public Device getDevice() {
+        return device;
+    }
 
-        // Start the driver
-        driver = new AndroidDriver(new URL(appiumUrl), options);
+    @BeforeClass
+    public void setUp() {
+        // Wait for a free device, then lease a warm session on it
+        device = DeviceScheduler.acquire();
+        // Spans of this thread belong to the device until the next class leases another
+        Tracer.setDevice(device.getUdid());
+        try {
+            driver = SessionPool.lease(device);
+        } catch (RuntimeException e) {
+            DeviceScheduler.release(device);
+            device = null;
+            throw e;
+        }
+    }
 
-        // Set implicit wait
-        int implicitWait = Integer.parseInt(AppiumUtils.getProperty("implicit.wait"));
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(implicitWait));
+    @BeforeMethod(alwaysRun = true)
+    public void prepareApp(Method method) {
+        // Method-level @AppReset wins over the class-level one, then the config default
+        AppReset annotation = method.getAnnotation(AppReset.class);
+        if (annotation == null) {
+            annotation = getClass().getAnnotation(AppReset.class);
+        }
+        ResetStrategy strategy = annotation != null
+                ? annotation.value()
+                : ResetStrategy.fromProperty("app.reset.default", ResetStrategy.NONE);
+        if (strategy != ResetStrategy.NONE && driver != null) {
+            long millis = strategy.apply(driver);
+            System.out.println("App reset (" + strategy + ") before " + method.getName() + " took " + millis + " ms");
+        }
+        // Then establish declared preconditions, reusing ones that still hold
+        if (driver != null) {
+            Fixtures.require(driver, Fixtures.declaredOn(getClass(), method));
+        }
+    }
 
-        System.out.println("Driver started successfully");
+    @AfterMethod(alwaysRun = true)
+    public void releaseFixtures(Method method) {
+        Invalidates annotation = method.getAnnotation(Invalidates.class);
+        if (annotation != null && driver != null) {
+            Fixtures.invalidate(driver, EnumSet.copyOf(Arrays.asList(annotation.value())));
+        }
     }
 
-    @AfterClass
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
         if (driver != null) {
-            driver.quit();
-            System.out.println("Driver closed successfully");
+            SessionPool.release(driver);
+            driver = null;
+        }
+        if (device != null) {
+            DeviceScheduler.release(device);
+            device = null;
         }
     }
 }
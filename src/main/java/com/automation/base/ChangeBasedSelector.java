@@ -0,0 +1,134 @@
+package com.automation.base;
+
+import com.automation.utils.AppiumUtils;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs only the tests whose page objects, locators or framework methods were
+ * touched since selection.base (a git ref or range such as origin/main...HEAD).
+ *
+ * Reachability comes from a bytecode index of the suite's test classes (see
+ * {@link TestImpactIndex}); the tests listed in selection.safety always run,
+ * and changes to build, suite, config or app files fall back to the full
+ * suite. Leaving selection.base empty disables selection. Registered before
+ * {@link DurationBalancer} so only the selected methods are balanced.
+ */
+public class ChangeBasedSelector implements IAlterSuiteListener {
+
+    private static final String INDEX_FILE = "test-output/test-impact-index.json";
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String base = AppiumUtils.getProperty("selection.base", "").trim();
+        if (base.isEmpty()) {
+            return;
+        }
+        for (XmlSuite suite : suites) {
+            Set<String> selected = select(suite, base);
+            if (selected != null) {
+                apply(suite, selected);
+            }
+        }
+    }
+
+    /** Impacted test ids for the suite, or null when the whole suite has to run. */
+    static Set<String> select(XmlSuite suite, String base) {
+        Map<String, Class<?>> testClasses = testClasses(suite);
+        TestImpactIndex index = TestImpactIndex.build(testClasses.values());
+        index.export(Paths.get(INDEX_FILE));
+
+        ChangeSet changes = ChangeSet.fromGit(base).resolve(index, listProperty("selection.full.run.patterns"));
+        if (changes.requiresFullRun()) {
+            System.out.println("Change selection: " + changes.getFullRunReason() + " changed since " + base
+                    + ", running the full suite");
+            return null;
+        }
+        Set<String> selected = new TreeSet<>(index.impactedBy(changes));
+        for (String safety : listProperty("selection.safety")) {
+            if (index.testIds().contains(safety)) {
+                selected.add(safety);
+            }
+        }
+        System.out.println("Change selection since " + base + ": " + changes);
+        System.out.println("Change selection: " + selected.size() + " of " + index.testIds().size()
+                + " tests impacted " + selected);
+        return selected;
+    }
+
+    private static void apply(XmlSuite suite, Set<String> selected) {
+        List<XmlTest> emptyTests = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            List<XmlClass> emptyClasses = new ArrayList<>();
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                List<XmlInclude> includes = new ArrayList<>();
+                for (String method : DurationBalancer.testMethods(xmlClass.getSupportClass(), xmlClass, test)) {
+                    if (selected.contains(xmlClass.getName() + "#" + method)) {
+                        includes.add(new XmlInclude(method));
+                    }
+                }
+                if (includes.isEmpty()) {
+                    emptyClasses.add(xmlClass);
+                } else {
+                    xmlClass.setIncludedMethods(includes);
+                }
+            }
+            test.getXmlClasses().removeAll(emptyClasses);
+            if (test.getXmlClasses().isEmpty()) {
+                emptyTests.add(test);
+            }
+        }
+        suite.getTests().removeAll(emptyTests);
+    }
+
+    private static Map<String, Class<?>> testClasses(XmlSuite suite) {
+        Map<String, Class<?>> classes = new LinkedHashMap<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                classes.put(xmlClass.getName(), xmlClass.getSupportClass());
+            }
+        }
+        return classes;
+    }
+
+    private static List<String> listProperty(String key) {
+        List<String> values = new ArrayList<>();
+        for (String value : AppiumUtils.getProperty(key, "").split(",")) {
+            if (!value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Prints the tests impacted since a git ref without running anything:
+     * {@code ChangeBasedSelector <base> [testng.xml]}.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: ChangeBasedSelector <base-ref> [testng.xml]");
+            System.exit(2);
+        }
+        String suiteFile = args.length > 1 ? args[1] : "testng.xml";
+        List<XmlSuite> suites = new ArrayList<>(new Parser(suiteFile).parseToList());
+        for (XmlSuite suite : suites) {
+            Set<String> selected = select(suite, args[0]);
+            List<String> tests = new ArrayList<>(selected == null ? TestImpactIndex.build(
+                    testClasses(suite).values()).testIds() : selected);
+            System.out.println(String.join(System.lineSeparator(), tests));
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.automation.base;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Code changed according to a git diff, narrowed as far as the bytecode allows:
+ * lines inside a method body mark only that method, lines of an
+ * {@code @AndroidFindBy} field declaration only that locator, and anything
+ * else in a Java file (imports, fields, Javadoc) the whole class. Changes to
+ * files matching the full-run patterns (build, suite, config, app) mean every
+ * test is impacted.
+ */
+public class ChangeSet {
+
+    private static final Pattern FILE_HEADER = Pattern.compile("^\\+\\+\\+ (?:b/)?(.+)$");
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -\\d+(?:,\\d+)? \\+(\\d+)(?:,(\\d+))? @@");
+    private static final Pattern FIELD_DECLARATION =
+            Pattern.compile("^\\s*(?:(?:private|protected|public|static|final)\\s+)*[\\w.<>,\\[\\] ]+\\s+(\\w+)\\s*(?:=.*)?;\\s*$");
+    private static final String[] SOURCE_ROOTS = {"src/main/java/", "src/test/java/"};
+
+    private final Map<String, List<Integer>> changedLines = new LinkedHashMap<>();
+    private final Set<String> changedClasses = new HashSet<>();
+    private final Set<String> changedMethods = new HashSet<>();
+    private final Set<String> changedFields = new HashSet<>();
+    private String fullRunReason;
+
+    private ChangeSet() {
+    }
+
+    /** Changes reported by git diff --unified=0 against the given ref or range (e.g. origin/main...HEAD). */
+    public static ChangeSet fromGit(String base) {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.add("diff");
+        command.add("--unified=0");
+        command.add("--no-color");
+        command.add("--no-renames");
+        command.add(base);
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            List<String> lines = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                }
+            }
+            if (!process.waitFor(60, TimeUnit.SECONDS) || process.exitValue() != 0) {
+                throw new IllegalStateException("git diff " + base + " failed: " + String.join("\n", lines));
+            }
+            return parse(lines);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot run git diff " + base + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running git diff " + base);
+        }
+    }
+
+    /** Parse unified diff output into changed line numbers (new side) per file. */
+    static ChangeSet parse(List<String> diff) {
+        ChangeSet changes = new ChangeSet();
+        String file = null;
+        String oldFile = null;
+        for (String line : diff) {
+            if (line.startsWith("--- ")) {
+                oldFile = line.startsWith("--- a/") ? line.substring("--- a/".length()).trim() : null;
+                continue;
+            }
+            Matcher header = FILE_HEADER.matcher(line);
+            if (header.matches()) {
+                file = header.group(1).trim();
+                if (file.equals("/dev/null")) {
+                    // Deleted file: the old path is all we get
+                    file = null;
+                    if (oldFile != null) {
+                        changes.changedLines.putIfAbsent(oldFile, new ArrayList<>());
+                    }
+                } else {
+                    changes.changedLines.putIfAbsent(file, new ArrayList<>());
+                }
+                continue;
+            }
+            Matcher hunk = HUNK_HEADER.matcher(line);
+            if (hunk.find() && file != null) {
+                int start = Integer.parseInt(hunk.group(1));
+                int count = hunk.group(2) == null ? 1 : Integer.parseInt(hunk.group(2));
+                List<Integer> lines = changes.changedLines.get(file);
+                if (count == 0) {
+                    // Pure deletion after line 'start': blame both neighbours
+                    lines.add(start);
+                    lines.add(start + 1);
+                }
+                for (int i = 0; i < count; i++) {
+                    lines.add(start + i);
+                }
+            }
+        }
+        return changes;
+    }
+
+    /** Attribute changed lines to classes, methods and locator fields using the index's bytecode. */
+    ChangeSet resolve(TestImpactIndex index, List<String> fullRunPatterns) {
+        for (Map.Entry<String, List<Integer>> entry : changedLines.entrySet()) {
+            String file = entry.getKey();
+            String className = className(file);
+            if (className == null) {
+                if (matchesAny(file, fullRunPatterns)) {
+                    fullRunReason = file;
+                }
+                continue;
+            }
+
+            List<TestImpactIndex.ClassInfo> compiled = index.classesOf(className.replace('.', '/'));
+            if (compiled.isEmpty() || entry.getValue().isEmpty()) {
+                // New, deleted or renamed source: be conservative
+                changedClasses.add(className);
+                continue;
+            }
+            Map<Integer, String> fieldLines = fieldLines(Paths.get(file), compiled);
+            for (int line : entry.getValue()) {
+                String method = methodAt(compiled, line);
+                if (method != null) {
+                    changedMethods.add(method);
+                } else if (fieldLines.containsKey(line)) {
+                    changedFields.add(className + "." + fieldLines.get(line));
+                } else {
+                    changedClasses.add(className);
+                }
+            }
+        }
+        return this;
+    }
+
+    public boolean requiresFullRun() {
+        return fullRunReason != null;
+    }
+
+    public String getFullRunReason() {
+        return fullRunReason;
+    }
+
+    public Set<String> changedFiles() {
+        return changedLines.keySet();
+    }
+
+    Set<String> changedClasses() {
+        return changedClasses;
+    }
+
+    Set<String> changedMethods() {
+        return changedMethods;
+    }
+
+    Set<String> changedFields() {
+        return changedFields;
+    }
+
+    @Override
+    public String toString() {
+        return "classes=" + changedClasses + ", methods=" + changedMethods + ", locators=" + changedFields;
+    }
+
+    // ======= HELPERS =======
+
+    private static String className(String file) {
+        if (!file.endsWith(".java")) {
+            return null;
+        }
+        for (String root : SOURCE_ROOTS) {
+            int at = file.indexOf(root);
+            if (at >= 0) {
+                String relative = file.substring(at + root.length(), file.length() - ".java".length());
+                return relative.replace('/', '.');
+            }
+        }
+        return null;
+    }
+
+    private static String methodAt(List<TestImpactIndex.ClassInfo> compiled, int line) {
+        for (TestImpactIndex.ClassInfo type : compiled) {
+            for (TestImpactIndex.MethodInfo method : type.methods.values()) {
+                // Field initialisers are compiled into <init>/<clinit>; treat those lines as class-wide
+                if (!method.name.startsWith("<") && method.containsLine(line)) {
+                    return method.id();
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Lines of annotated locator fields (annotation through declaration) mapped to the field name. */
+    private static Map<Integer, String> fieldLines(Path source, List<TestImpactIndex.ClassInfo> compiled) {
+        Set<String> locators = new HashSet<>();
+        for (TestImpactIndex.ClassInfo type : compiled) {
+            locators.addAll(type.locatorFields);
+        }
+        Map<Integer, String> result = new LinkedHashMap<>();
+        if (locators.isEmpty() || !Files.isRegularFile(source)) {
+            return result;
+        }
+        try {
+            List<String> lines = Files.readAllLines(source, StandardCharsets.UTF_8);
+            int annotationStart = -1;
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i).trim();
+                if (line.startsWith("@AndroidFindBy")) {
+                    annotationStart = annotationStart < 0 ? i + 1 : annotationStart;
+                    continue;
+                }
+                Matcher field = FIELD_DECLARATION.matcher(lines.get(i));
+                if (annotationStart > 0 && field.matches() && locators.contains(field.group(1))) {
+                    for (int l = annotationStart; l <= i + 1; l++) {
+                        result.put(l, field.group(1));
+                    }
+                }
+                if (!line.startsWith("@")) {
+                    annotationStart = -1;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot read " + source + " for locator lines: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private static boolean matchesAny(String file, List<String> patterns) {
+        Path path = Paths.get(file);
+        for (String pattern : patterns) {
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern.trim());
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
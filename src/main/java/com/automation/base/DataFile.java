@@ -0,0 +1,18 @@
+package com.automation.base;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * CSV or JSONL dataset feeding a test through {@link DataProviders#DATA_FILE}.
+ * Relative paths resolve against data.dir, so a larger dataset can be swapped
+ * in without touching the test.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface DataFile {
+
+    String value();
+}
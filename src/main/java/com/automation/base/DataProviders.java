@@ -0,0 +1,40 @@
+package com.automation.base;
+
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.DataRows;
+import org.testng.annotations.DataProvider;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+/**
+ * Shared TestNG data providers.
+ *
+ * {@link #DATA_FILE} streams the method's {@link DataFile} one row at a time,
+ * each row a {@code Map<String, String>} keyed by column. data.shard.index and
+ * data.shard.count split the rows between runners (e.g. a CI matrix), and
+ * data.max.rows caps a run; 0 means every row.
+ */
+public class DataProviders {
+
+    public static final String DATA_FILE = "dataFile";
+
+    private DataProviders() {
+    }
+
+    @DataProvider(name = DATA_FILE)
+    public static Iterator<Object[]> dataFile(Method method) {
+        DataFile dataFile = method.getAnnotation(DataFile.class);
+        if (dataFile == null) {
+            throw new IllegalStateException(method.getName() + " uses the " + DATA_FILE
+                    + " data provider without @DataFile");
+        }
+        Path path = Paths.get(AppiumUtils.getProperty("data.dir", "testdata")).resolve(dataFile.value());
+        return DataRows.open(path,
+                AppiumUtils.getIntProperty("data.shard.index", 0),
+                AppiumUtils.getIntProperty("data.shard.count", 1),
+                AppiumUtils.getIntProperty("data.max.rows", 0));
+    }
+}
@@ -0,0 +1,55 @@
+package com.automation.base;
+
+import java.util.Objects;
+
+/**
+ * A single Android device (emulator or physical) reachable through an Appium server.
+ * Every device gets its own UiAutomator2 systemPort so sessions on the same
+ * Appium server do not collide.
+ */
+public class Device {
+
+    private final String udid;
+    private final String appiumUrl;
+    private final int systemPort;
+
+    public Device(String udid, String appiumUrl, int systemPort) {
+        this.udid = udid;
+        this.appiumUrl = appiumUrl;
+        this.systemPort = systemPort;
+    }
+
+    public String getUdid() {
+        return udid;
+    }
+
+    public String getAppiumUrl() {
+        return appiumUrl;
+    }
+
+    public int getSystemPort() {
+        return systemPort;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Device)) {
+            return false;
+        }
+        Device other = (Device) o;
+        return udid.equals(other.udid) && appiumUrl.equals(other.appiumUrl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(udid, appiumUrl);
+    }
+
+    @Override
+    public String toString() {
+        return udid + "@" + appiumUrl;
+    }
+}
@@ -0,0 +1,73 @@
+package com.automation.base;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scales the suite's thread count to the number of healthy devices, so adding
+ * an emulator to the registry adds a worker and removing one stops contention.
+ *
+ * In virtual-thread mode the {@code <test>} blocks are merged into one that
+ * runs its classes in parallel on a virtual thread each; classes queue for
+ * device leases instead of the thread count being capped at the device count.
+ *
+ * Once the suite is final, sessions for the first classes start warming up on
+ * the devices in the background (see {@link SessionPool#prewarm}).
+ */
+public class DeviceAwareSuiteListener implements IAlterSuiteListener, ISuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        int devices = DeviceScheduler.capacity();
+        for (XmlSuite suite : suites) {
+            if (suite.getParallel() == null || suite.getParallel() == XmlSuite.ParallelMode.NONE) {
+                continue;
+            }
+            if (VirtualThreads.isActive()) {
+                mergeForVirtualThreads(suite, devices);
+                continue;
+            }
+            System.out.println("Scaling '" + suite.getName() + "' thread-count from "
+                    + suite.getThreadCount() + " to " + devices + " (healthy devices)");
+            suite.setThreadCount(devices);
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        // One lease per test class instance, i.e. per class in every <test>
+        int leases = 0;
+        for (XmlTest test : suite.getXmlSuite().getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                if (BaseTest.class.isAssignableFrom(xmlClass.getSupportClass())) {
+                    leases++;
+                }
+            }
+        }
+        SessionPool.prewarm(DeviceRegistry.getHealthyDevices(), leases);
+    }
+
+    private static void mergeForVirtualThreads(XmlSuite suite, int devices) {
+        List<XmlClass> classes = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            classes.addAll(test.getXmlClasses());
+        }
+        suite.getTests().clear();
+        XmlTest merged = new XmlTest(suite);
+        merged.setName("Virtual Sessions");
+        merged.setXmlClasses(classes);
+
+        // Virtual threads are cheap: one per class, the device queue limits real concurrency
+        suite.setParallel(XmlSuite.ParallelMode.CLASSES);
+        suite.setThreadCount(Math.max(1, classes.size()));
+        System.out.println("Running " + classes.size() + " classes of '" + suite.getName()
+                + "' on virtual threads across " + devices + " devices");
+    }
+}
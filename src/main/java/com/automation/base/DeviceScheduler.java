@@ -0,0 +1,83 @@
+package com.automation.base;
+
+import com.automation.utils.AppiumUtils;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out exclusive device leases to TestNG worker threads.
+ * A worker that finds every device busy waits in line until one is released,
+ * so parallel classes never share a device. Among free devices, one whose
+ * pooled session is already prepared is handed out first.
+ */
+public class DeviceScheduler {
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static volatile BlockingQueue<Device> available;
+
+    private DeviceScheduler() {
+    }
+
+    /** Block until a device is free and lease it to the calling worker. */
+    public static Device acquire() {
+        int timeoutSeconds = AppiumUtils.getIntProperty("device.lease.timeout", 600);
+        try {
+            Device device = takeReady(queue());
+            if (device == null) {
+                device = queue().poll(timeoutSeconds, TimeUnit.SECONDS);
+            }
+            if (device == null) {
+                throw new RuntimeException("No device became available within " + timeoutSeconds + "s");
+            }
+            System.out.println(Thread.currentThread().getName() + " leased device " + device);
+            return device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a device");
+        }
+    }
+
+    /** Return a device so the next queued worker can use it. */
+    public static void release(Device device) {
+        if (device != null) {
+            queue().offer(device);
+        }
+    }
+
+    /** A free device whose next session needs no waiting, or null. */
+    private static Device takeReady(BlockingQueue<Device> queue) {
+        for (Device device : queue) {
+            if (SessionPool.hasReadySession(device) && queue.remove(device)) {
+                return device;
+            }
+        }
+        return null;
+    }
+
+    /** Number of devices the scheduler can hand out in parallel. */
+    public static int capacity() {
+        return Math.max(1, DeviceRegistry.getHealthyDevices().size());
+    }
+
+    private static BlockingQueue<Device> queue() {
+        BlockingQueue<Device> queue = available;
+        if (queue != null) {
+            return queue;
+        }
+        lock.lock();
+        try {
+            if (available == null) {
+                List<Device> healthy = DeviceRegistry.getHealthyDevices();
+                // Fall back to every configured device so tests fail with a real session error
+                available = new LinkedBlockingQueue<>(healthy.isEmpty() ? DeviceRegistry.getDevices() : healthy);
+            }
+            return available;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
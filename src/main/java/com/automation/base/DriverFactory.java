@@ -0,0 +1,113 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import com.automation.stub.StubAppiumServer;
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.LatencyMetrics;
+import com.automation.utils.Tracer;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+
+/**
+ * Builds new AndroidDriver sessions from config.properties.
+ * Session creation is the most expensive step of a run, so callers should
+ * go through {@link SessionPool} instead of calling this directly.
+ */
+public class DriverFactory {
+
+    private DriverFactory() {
+    }
+
+    /** Resolve the Appium server URL, honouring the Docker environment overrides. */
+    public static String resolveAppiumUrl() {
+        if (StubAppiumServer.isEnabled()) {
+            return StubAppiumServer.shared().getUrl();
+        }
+        String appiumUrl = AppiumUtils.getProperty("appium.server.url");
+
+        // Docker support: override Appium URL from environment variables
+        String appiumHost = System.getenv("APPIUM_HOST");
+        String appiumPort = System.getenv("APPIUM_PORT");
+        if (appiumHost != null && !appiumHost.trim().isEmpty()) {
+            int appiumPortNumber = 4723;
+            if (appiumPort != null && !appiumPort.trim().isEmpty()) {
+                try {
+                    appiumPortNumber = Integer.parseInt(appiumPort.trim());
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid APPIUM_PORT '" + appiumPort + "', defaulting to 4723");
+                }
+            }
+            appiumUrl = "http://" + appiumHost.trim() + ":" + appiumPortNumber;
+            System.out.println("Using Docker Appium URL: " + appiumUrl);
+        }
+        return appiumUrl;
+    }
+
+    /** Start a brand new UiAutomator2 session on the given device. */
+    public static AndroidDriver createDriver(Device device) {
+        long traceStart = Tracer.start();
+        // Read from config.properties
+        String appiumUrl      = device.getAppiumUrl();
+        String platformName   = AppiumUtils.getProperty("platform.name");
+        String deviceName     = device.getUdid();
+        String appPath        = AppiumUtils.getProperty("app.path");
+        String automationName = AppiumUtils.getProperty("automation.name");
+
+        // Configure desired capabilities
+        UiAutomator2Options options = new UiAutomator2Options();
+        options.setPlatformName(platformName);
+        options.setDeviceName(deviceName);
+        options.setUdid(deviceName);
+        options.setSystemPort(device.getSystemPort());
+        options.setAutomationName(automationName);
+        boolean installCache = AppInstaller.isEnabled();
+        if (installCache) {
+            // Launch the installed app; AppInstaller installs it only where it is missing or outdated.
+            // noReset: without 'app' UiAutomator2 would otherwise clear the app data on session start
+            options.setNoReset(true);
+            options.setAppPackage(AppiumUtils.getProperty("app.package"));
+            options.setAppActivity(AppiumUtils.getProperty("app.activity"));
+            options.setCapability("appium:autoLaunch", false);
+        } else {
+            options.setNoReset(false);
+            options.setApp(System.getProperty("user.dir") + "/" + appPath);
+        }
+
+        // Start the driver
+        AndroidDriver driver;
+        try {
+            URL url = new URL(appiumUrl);
+            boolean tunedHttp = AppiumUtils.getBooleanProperty("http.tuned.enabled", true);
+            if (LatencyMetrics.isEnabled() || Tracer.isEnabled()) {
+                driver = tunedHttp
+                        ? new InstrumentedAndroidDriver(url, TunedHttpClientFactory.shared(), options)
+                        : new InstrumentedAndroidDriver(url, options);
+            } else {
+                driver = tunedHttp
+                        ? new AndroidDriver(url, TunedHttpClientFactory.shared(), options)
+                        : new AndroidDriver(url, options);
+            }
+        } catch (MalformedURLException e) {
+            throw new RuntimeException("Invalid Appium server URL '" + appiumUrl + "': " + e.getMessage());
+        }
+
+        // Implicit waits stay off: page objects wait explicitly through WaitEngine
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+
+        if (installCache) {
+            try {
+                AppInstaller.prepare(driver, device);
+            } catch (RuntimeException e) {
+                driver.quit();
+                throw e;
+            }
+        }
+
+        Tracer.end(Tracer.SESSION, "createDriver", traceStart, device.getUdid());
+        System.out.println("Driver started successfully on " + device);
+        return driver;
+    }
+}
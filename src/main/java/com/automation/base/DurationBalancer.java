@@ -0,0 +1,570 @@
+package com.automation.base;
+
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.DurationHistory;
+import org.openqa.selenium.json.Json;
+import org.testng.IAlterSuiteListener;
+import org.testng.IConfigurationListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlMethodSelector;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Balances test methods across the parallel workers using durations from
+ * previous runs.
+ *
+ * Before the suite starts, the classes of all {@code <test>} blocks are
+ * replaced by one {@code <test>} per device ("Worker 1".."Worker N"). Methods
+ * are assigned longest-first to the worker that would finish earliest (LPT),
+ * counting a class's setup cost for every worker that gets some of its
+ * methods; classes with dependsOn stay whole. Within a worker, classes run
+ * longest-first and contiguously, so a worker never holds two device leases.
+ * Measured durations are blended into schedule.history.file after the run,
+ * and predicted vs actual worker utilisation is reported.
+ */
+public class DurationBalancer implements IAlterSuiteListener, IMethodInterceptor, ISuiteListener,
+        ITestListener, IConfigurationListener {
+
+    private static final String CLASS_SETUP = "#@class";
+    private static final String METHOD_OVERHEAD = "#@method";
+
+    private static final Map<String, Worker> plan = new LinkedHashMap<>();
+    private static final Map<String, long[]> measured = new ConcurrentHashMap<>();
+    private static final Map<String, long[]> actual = new ConcurrentHashMap<>();
+    private static final Set<String> dataDriven = ConcurrentHashMap.newKeySet();
+    private static volatile DurationHistory history;
+    private static volatile long suiteStart;
+    private static volatile long suiteEnd;
+
+    // ======= PLANNING =======
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        if (!AppiumUtils.getBooleanProperty("schedule.balance.enabled", true)) {
+            return;
+        }
+        history = DurationHistory.load(historyFile(), 0.5);
+        for (XmlSuite suite : suites) {
+            if (suite.getParallel() != XmlSuite.ParallelMode.TESTS) {
+                continue;
+            }
+            XmlTest template = commonSettings(suite);
+            if (template == null) {
+                System.out.println("Balanced schedule skipped: the <test> blocks of " + suite.getName()
+                        + " differ in groups, settings or parameters");
+                continue;
+            }
+            List<Unit> units = collectUnits(suite);
+            if (units.isEmpty()) {
+                continue;
+            }
+            List<Worker> workers = assign(units, DeviceScheduler.capacity());
+            rewrite(suite, template, workers);
+            System.out.println(describePlan(workers));
+        }
+    }
+
+    /** LPT plan of the suite's methods for the given number of workers, from the duration history. */
+    static List<Worker> plan(XmlSuite suite, int workerCount) {
+        history = DurationHistory.load(historyFile(), 0.5);
+        return assign(collectUnits(suite), workerCount);
+    }
+
+    /** Longest-first list scheduling, charging class setup once per worker that runs the class. */
+    private static List<Worker> assign(List<Unit> units, int workerCount) {
+        List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker("Worker " + (i + 1)));
+        }
+        units.sort(Comparator.comparingDouble((Unit u) -> u.cost).reversed());
+        for (Unit unit : units) {
+            Worker best = null;
+            double bestFinish = Double.MAX_VALUE;
+            for (Worker worker : workers) {
+                double finish = worker.predictedMillis + unit.cost
+                        + (worker.classes.containsKey(unit.className) ? 0 : unit.setup);
+                if (finish < bestFinish) {
+                    bestFinish = finish;
+                    best = worker;
+                }
+            }
+            best.add(unit);
+        }
+        workers.removeIf(worker -> worker.classes.isEmpty());
+        return workers;
+    }
+
+    /**
+     * Each worker {@code <test>} copies the groups, settings and parameters of
+     * the original blocks (which all share them, see {@link #commonSettings}),
+     * so balancing only changes which classes and methods run where.
+     */
+    private static void rewrite(XmlSuite suite, XmlTest template, List<Worker> workers) {
+        Map<String, String> parameters = template.getLocalParameters();
+        suite.getTests().clear();
+        synchronized (plan) {
+            plan.clear();
+            for (Worker worker : workers) {
+                XmlTest test = new XmlTest(suite);
+                if (!suite.getTests().contains(test)) {
+                    suite.getTests().add(test);
+                }
+                copySettings(template, test);
+                test.setName(worker.name);
+                test.setPreserveOrder(true);
+                test.setParameters(new HashMap<>(parameters));
+                List<XmlClass> classes = new ArrayList<>();
+                for (String className : worker.classOrder()) {
+                    XmlClass xmlClass = new XmlClass(className);
+                    List<XmlInclude> includes = new ArrayList<>();
+                    for (String method : worker.classes.get(className)) {
+                        includes.add(new XmlInclude(method));
+                    }
+                    xmlClass.setIncludedMethods(includes);
+                    classes.add(xmlClass);
+                }
+                test.setXmlClasses(classes);
+                plan.put(worker.name, worker);
+            }
+        }
+    }
+
+    /** The first {@code <test>} if every block shares its groups, settings and parameters, else null. */
+    private static XmlTest commonSettings(XmlSuite suite) {
+        XmlTest template = null;
+        for (XmlTest test : suite.getTests()) {
+            if (template == null) {
+                template = test;
+            } else if (!settingsOf(test).equals(settingsOf(template))) {
+                return null;
+            }
+        }
+        return template;
+    }
+
+    private static List<Object> settingsOf(XmlTest test) {
+        List<String> selectors = new ArrayList<>();
+        for (XmlMethodSelector selector : test.getMethodSelectors()) {
+            selectors.add(selector.toXml(""));
+        }
+        return Arrays.asList(test.getXmlGroups() == null ? null : test.getXmlGroups().toXml(""), selectors,
+                test.getTimeOut(), test.isJUnit(), test.getVerbose(), test.getParallel(), test.getThreadCount(),
+                test.skipFailedInvocationCounts(), test.getGroupByInstances(), test.getAllowReturnValues(),
+                test.getPreserveOrder(), test.getLocalParameters());
+    }
+
+    private static void copySettings(XmlTest from, XmlTest to) {
+        to.setGroups(from.getXmlGroups());
+        to.setMethodSelectors(new ArrayList<>(from.getMethodSelectors()));
+        if (from.getTimeOut() != null) {
+            to.setTimeOut(from.getTimeOut(XmlTest.DEFAULT_TIMEOUT_MS));
+        }
+        to.setJUnit(from.isJUnit());
+        to.setVerbose(from.getVerbose());
+        to.setParallel(from.getParallel());
+        to.setThreadCount(from.getThreadCount());
+        to.setSkipFailedInvocationCounts(from.skipFailedInvocationCounts());
+        to.setGroupByInstances(from.getGroupByInstances());
+        to.setAllowReturnValues(from.getAllowReturnValues());
+    }
+
+    /** Run each worker's classes contiguously in planned order, keeping method order within a class. */
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        Worker worker;
+        synchronized (plan) {
+            worker = plan.get(context.getName());
+        }
+        if (worker == null) {
+            return methods;
+        }
+        List<String> order = worker.classOrder();
+        List<IMethodInstance> sorted = new ArrayList<>(methods);
+        sorted.sort(Comparator.comparingInt(m -> {
+            int index = order.indexOf(m.getMethod().getRealClass().getName());
+            return index < 0 ? Integer.MAX_VALUE : index;
+        }));
+        return sorted;
+    }
+
+    private static List<Unit> collectUnits(XmlSuite suite) {
+        double defaultMethod = AppiumUtils.getIntProperty("schedule.default.method.ms", 20000);
+        double defaultSetup = AppiumUtils.getIntProperty("schedule.default.class.ms", 5000);
+        boolean split = AppiumUtils.getBooleanProperty("schedule.split.classes", true);
+
+        List<Unit> units = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                Class<?> type = xmlClass.getSupportClass();
+                String name = type.getName();
+                List<String> methods = testMethods(type, xmlClass, test);
+                double setup = history.estimate(name + CLASS_SETUP, defaultSetup);
+                double overhead = history.estimate(name + METHOD_OVERHEAD, 0);
+
+                if (!split || hasDependencies(type)) {
+                    double total = 0;
+                    for (String method : methods) {
+                        total += history.estimate(name + "#" + method, defaultMethod) + overhead;
+                    }
+                    units.add(new Unit(name, methods, total, setup));
+                    continue;
+                }
+                for (String method : methods) {
+                    List<String> single = new ArrayList<>();
+                    single.add(method);
+                    units.add(new Unit(name, single, history.estimate(name + "#" + method, defaultMethod) + overhead, setup));
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * The methods TestNG would run for the class in this {@code <test>}: enabled,
+     * passing the group include/exclude, and matching the class's include and
+     * exclude entries, which TestNG treats as regular expressions.
+     */
+    static List<String> testMethods(Class<?> type, XmlClass xmlClass, XmlTest test) {
+        Test classTest = type.getAnnotation(Test.class);
+        List<String> includedGroups = expandMetaGroups(test.getIncludedGroups(), test.getMetaGroups());
+        List<String> excludedGroups = expandMetaGroups(test.getExcludedGroups(), test.getMetaGroups());
+        List<String> included = new ArrayList<>();
+        for (XmlInclude include : xmlClass.getIncludedMethods()) {
+            included.add(include.getName());
+        }
+        List<String> methods = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            Test methodTest = method.getAnnotation(Test.class);
+            boolean isTest = methodTest != null
+                    || (classTest != null && method.getDeclaringClass() == type && method.getAnnotations().length == 0);
+            if (!isTest || (methodTest != null && !methodTest.enabled()) || (classTest != null && !classTest.enabled())) {
+                continue;
+            }
+            List<String> groups = new ArrayList<>();
+            if (classTest != null) {
+                groups.addAll(Arrays.asList(classTest.groups()));
+            }
+            if (methodTest != null) {
+                groups.addAll(Arrays.asList(methodTest.groups()));
+            }
+            if ((!includedGroups.isEmpty() && !anyMatches(groups, includedGroups)) || anyMatches(groups, excludedGroups)) {
+                continue;
+            }
+            List<String> name = Collections.singletonList(method.getName());
+            if ((included.isEmpty() || anyMatches(name, included)) && !anyMatches(name, xmlClass.getExcludedMethods())) {
+                methods.add(method.getName());
+            }
+        }
+        methods.sort(null);
+        return methods;
+    }
+
+    private static List<String> expandMetaGroups(List<String> groups, Map<String, List<String>> metaGroups) {
+        List<String> expanded = new ArrayList<>();
+        for (String group : groups) {
+            expanded.add(group);
+            List<String> members = metaGroups.get(group);
+            if (members != null && !members.contains(group)) {
+                Map<String, List<String>> rest = new HashMap<>(metaGroups);
+                rest.remove(group);
+                expanded.addAll(expandMetaGroups(members, rest));
+            }
+        }
+        return expanded;
+    }
+
+    private static boolean anyMatches(List<String> names, List<String> patterns) {
+        for (String pattern : patterns) {
+            for (String name : names) {
+                if (Pattern.matches(pattern, name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static boolean hasDependencies(Class<?> type) {
+        for (Method method : type.getMethods()) {
+            Test test = method.getAnnotation(Test.class);
+            if (test != null && (test.dependsOnMethods().length > 0 || test.dependsOnGroups().length > 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ======= MEASUREMENT =======
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.currentTimeMillis();
+        suiteEnd = 0;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        recordTest(result, true);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        recordTest(result, true);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        recordTest(result, false);
+    }
+
+    @Override
+    public void onConfigurationSuccess(ITestResult result) {
+        recordConfiguration(result);
+    }
+
+    @Override
+    public void onConfigurationFailure(ITestResult result) {
+        recordConfiguration(result);
+    }
+
+    private static void recordTest(ITestResult result, boolean ran) {
+        String className = result.getTestClass().getRealClass().getName();
+        if (ran) {
+            // A data-driven method is scheduled as one unit: sum its rows, count it once
+            String key = className + "#" + result.getMethod().getMethodName();
+            boolean firstRun = !result.getMethod().isDataDriven() || dataDriven.add(key);
+            add(key, duration(result), firstRun ? 1 : 0);
+            add(className + "#@tests", 0, 1);
+        }
+        recordBusy(result);
+    }
+
+    private static void recordConfiguration(ITestResult result) {
+        ITestNGMethod method = result.getMethod();
+        String className = result.getTestClass().getRealClass().getName();
+        if (method.isBeforeClassConfiguration() || method.isAfterClassConfiguration()) {
+            add(className + CLASS_SETUP, duration(result), method.isBeforeClassConfiguration() ? 1 : 0);
+        } else if (method.isBeforeMethodConfiguration() || method.isAfterMethodConfiguration()) {
+            add(className + METHOD_OVERHEAD, duration(result), 0);
+        }
+        recordBusy(result);
+    }
+
+    private static void recordBusy(ITestResult result) {
+        if (result.getTestContext() == null) {
+            return;
+        }
+        long[] worker = actual.computeIfAbsent(result.getTestContext().getName(),
+                name -> new long[]{0, Long.MAX_VALUE, 0});
+        synchronized (worker) {
+            worker[0] += duration(result);
+            worker[1] = Math.min(worker[1], result.getStartMillis());
+            worker[2] = Math.max(worker[2], result.getEndMillis());
+        }
+    }
+
+    private static void add(String key, long millis, int count) {
+        long[] totals = measured.computeIfAbsent(key, k -> new long[2]);
+        synchronized (totals) {
+            totals[0] += millis;
+            totals[1] += count;
+        }
+    }
+
+    private static long duration(ITestResult result) {
+        return Math.max(0, result.getEndMillis() - result.getStartMillis());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        suiteEnd = System.currentTimeMillis();
+        if (history == null) {
+            return;
+        }
+        for (Map.Entry<String, long[]> entry : measured.entrySet()) {
+            String key = entry.getKey();
+            long[] totals = entry.getValue();
+            if (key.endsWith(METHOD_OVERHEAD)) {
+                // Before/after-method time spread over the class's test methods
+                long[] tests = measured.get(key.substring(0, key.length() - METHOD_OVERHEAD.length()) + "#@tests");
+                if (tests != null && tests[1] > 0) {
+                    history.record(key, (double) totals[0] / tests[1]);
+                }
+            } else if (!key.endsWith("#@tests") && totals[1] > 0) {
+                // Per invocation; for class setup, per class instance (setUp + tearDown)
+                history.record(key, (double) totals[0] / totals[1]);
+            }
+        }
+        history.save();
+        writeReport(Paths.get("test-output", "schedule-report.json"));
+        for (String[] row : toTable()) {
+            System.out.println(String.format("%-10s %-10s %-14s %-12s %-14s %-10s", (Object[]) row));
+        }
+    }
+
+    // ======= REPORTING =======
+
+    /** Whether this run was scheduled by the balancer. */
+    public static boolean isActive() {
+        synchronized (plan) {
+            return !plan.isEmpty();
+        }
+    }
+
+    /** Rows (worker, methods, predicted ms, predicted util, actual busy ms, actual util) for the report. */
+    public static String[][] toTable() {
+        List<Map<String, Object>> rows = utilisation();
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = new String[]{"worker", "methods", "predicted ms", "predicted %", "actual busy ms", "actual %"};
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            table[i + 1] = new String[]{String.valueOf(row.get("worker")), String.valueOf(row.get("methods")),
+                    String.valueOf(row.get("predictedMs")), row.get("predictedUtilisation") + "%",
+                    String.valueOf(row.get("actualBusyMs")), row.get("actualUtilisation") + "%"};
+        }
+        return table;
+    }
+
+    private static List<Map<String, Object>> utilisation() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        synchronized (plan) {
+            double predictedMakespan = 0;
+            for (Worker worker : plan.values()) {
+                predictedMakespan = Math.max(predictedMakespan, worker.predictedMillis);
+            }
+            long end = suiteEnd > 0 ? suiteEnd : System.currentTimeMillis();
+            long actualMakespan = Math.max(1, end - suiteStart);
+            for (Worker worker : plan.values()) {
+                long[] busy = actual.getOrDefault(worker.name, new long[]{0, 0, 0});
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("worker", worker.name);
+                row.put("methods", worker.methodCount());
+                row.put("classes", worker.classOrder());
+                row.put("predictedMs", Math.round(worker.predictedMillis));
+                row.put("predictedUtilisation", percent(worker.predictedMillis, predictedMakespan));
+                row.put("actualBusyMs", busy[0]);
+                row.put("actualUtilisation", percent(busy[0], actualMakespan));
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private static void writeReport(Path file) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("makespanMs", Math.max(0, suiteEnd - suiteStart));
+        report.put("workers", utilisation());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, new Json().toJson(report).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Cannot write schedule report to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String describePlan(List<Worker> workers) {
+        StringBuilder description = new StringBuilder("Balanced schedule (LPT on duration history):");
+        for (Worker worker : workers) {
+            description.append("\n  ").append(worker.name).append(": ").append(worker.methodCount())
+                    .append(" methods, predicted ").append(Math.round(worker.predictedMillis / 1000)).append(" s")
+                    .append(" ").append(worker.classOrder());
+        }
+        return description.toString();
+    }
+
+    private static long percent(double part, double whole) {
+        return whole <= 0 ? 0 : Math.round(part * 100 / whole);
+    }
+
+    static Path historyFile() {
+        return Paths.get(AppiumUtils.getProperty("schedule.history.file", "test-output/test-durations.json"));
+    }
+
+    // ======= MODEL =======
+
+    /** Methods that must run on the same worker: one method, or a whole class with dependencies. */
+    private static final class Unit {
+        final String className;
+        final List<String> methods;
+        final double cost;
+        final double setup;
+
+        Unit(String className, List<String> methods, double cost, double setup) {
+            this.className = className;
+            this.methods = methods;
+            this.cost = cost;
+            this.setup = setup;
+        }
+    }
+
+    static final class Worker {
+        final String name;
+        final Map<String, List<String>> classes = new LinkedHashMap<>();
+        final Map<String, Double> classMillis = new HashMap<>();
+        double predictedMillis;
+
+        Worker(String name) {
+            this.name = name;
+        }
+
+        void add(Unit unit) {
+            double cost = unit.cost + (classes.containsKey(unit.className) ? 0 : unit.setup);
+            classes.computeIfAbsent(unit.className, c -> new ArrayList<>()).addAll(unit.methods);
+            classMillis.merge(unit.className, cost, Double::sum);
+            predictedMillis += cost;
+        }
+
+        /** Predicted milliseconds of the class on this worker, setup included. */
+        double classMillis(String className) {
+            return classMillis.getOrDefault(className, 0.0);
+        }
+
+        /** Longest class first. */
+        List<String> classOrder() {
+            List<String> order = new ArrayList<>(classes.keySet());
+            order.sort(Comparator.comparingDouble((String c) -> classMillis.get(c)).reversed());
+            return order;
+        }
+
+        int methodCount() {
+            int count = 0;
+            for (List<String> methods : classes.values()) {
+                count += methods.size();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.utils.LatencyMetrics;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Memoizes which {@link Precondition}s hold in each driver session, so a
+ * precondition is established once and then reused. It is trusted as is
+ * until the app is reset; after a reset it should survive it is checked
+ * once before reuse. It is set up again when that check fails, after a test
+ * declared it {@link Invalidates invalidated}, or after a reset it does not
+ * survive. Each outcome is timed under the "fixture" latency category.
+ */
+public class Fixtures {
+
+    private static final Map<AndroidDriver, Set<Precondition>> established =
+            Collections.synchronizedMap(new WeakHashMap<>());
+    // Established, but the app was reset since: check before trusting it
+    private static final Map<AndroidDriver, Set<Precondition>> unchecked =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private Fixtures() {
+    }
+
+    /** Make sure every precondition holds, reusing memoized ones that still check out. */
+    public static void require(AndroidDriver driver, Set<Precondition> preconditions) {
+        for (Precondition precondition : preconditions) {
+            long start = System.nanoTime();
+            String outcome;
+            if (!stateOf(driver, established).contains(precondition)) {
+                outcome = "established";
+            } else if (!stateOf(driver, unchecked).remove(precondition)) {
+                outcome = "reused";
+            } else {
+                outcome = precondition.holds(driver) ? "checked" : "established";
+            }
+            if ("established".equals(outcome)) {
+                precondition.establish(driver);
+                stateOf(driver, established).add(precondition);
+                stateOf(driver, unchecked).remove(precondition);
+            }
+            if (LatencyMetrics.isEnabled()) {
+                LatencyMetrics.record(LatencyMetrics.FIXTURE, precondition + " " + outcome,
+                        System.nanoTime() - start);
+            }
+        }
+    }
+
+    /** Forget preconditions a test broke. */
+    public static void invalidate(AndroidDriver driver, Set<Precondition> preconditions) {
+        stateOf(driver, established).removeAll(preconditions);
+    }
+
+    /** Forget preconditions that do not survive the reset just applied; check the rest before reuse. */
+    public static void afterReset(AndroidDriver driver, ResetStrategy strategy) {
+        if (strategy == ResetStrategy.NONE) {
+            return;
+        }
+        Set<Precondition> state = stateOf(driver, established);
+        state.removeIf(precondition -> !precondition.survives(strategy));
+        stateOf(driver, unchecked).addAll(state);
+    }
+
+    /** Preconditions declared on the test class and method together. */
+    public static Set<Precondition> declaredOn(Class<?> testClass, Method method) {
+        Set<Precondition> preconditions = EnumSet.noneOf(Precondition.class);
+        Requires onClass = testClass.getAnnotation(Requires.class);
+        if (onClass != null) {
+            Collections.addAll(preconditions, onClass.value());
+        }
+        Requires onMethod = method.getAnnotation(Requires.class);
+        if (onMethod != null) {
+            Collections.addAll(preconditions, onMethod.value());
+        }
+        return preconditions;
+    }
+
+    private static Set<Precondition> stateOf(AndroidDriver driver, Map<AndroidDriver, Set<Precondition>> states) {
+        synchronized (states) {
+            return states.computeIfAbsent(driver,
+                    d -> Collections.synchronizedSet(EnumSet.noneOf(Precondition.class)));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.utils.LatencyMetrics;
+import com.automation.utils.Tracer;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.CommandPayload;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * AndroidDriver that times every WebDriver command it sends, for the latency
+ * metrics and as spans of the trace timeline.
+ *
+ * Element commands (click, getText, ...) are sent through the driver as
+ * well, so overriding execute() sees all traffic, which a WebDriver-typed
+ * event-firing decorator around AndroidDriver would not. Find commands are
+ * additionally recorded per locator.
+ */
+public class InstrumentedAndroidDriver extends AndroidDriver {
+
+    public InstrumentedAndroidDriver(URL remoteAddress, Capabilities capabilities) {
+        super(remoteAddress, capabilities);
+    }
+
+    public InstrumentedAndroidDriver(URL remoteAddress, HttpClient.Factory httpClientFactory,
+                                     Capabilities capabilities) {
+        super(remoteAddress, httpClientFactory, capabilities);
+    }
+
+    @Override
+    protected Response execute(CommandPayload payload) {
+        long start = System.nanoTime();
+        try {
+            return super.execute(payload);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            String command = payload.getName();
+            Tracer.end(Tracer.COMMAND, command, start);
+            if (LatencyMetrics.isEnabled()) {
+                LatencyMetrics.record(LatencyMetrics.COMMAND, command, elapsed);
+                if (isFindCommand(command)) {
+                    Map<String, ?> parameters = payload.getParameters();
+                    LatencyMetrics.record(LatencyMetrics.LOCATOR,
+                            parameters.get("using") + "=" + parameters.get("value"), elapsed);
+                }
+            }
+        }
+    }
+
+    private static boolean isFindCommand(String command) {
+        return DriverCommand.FIND_ELEMENT.equals(command) || DriverCommand.FIND_ELEMENTS.equals(command)
+                || DriverCommand.FIND_CHILD_ELEMENT.equals(command)
+                || DriverCommand.FIND_CHILD_ELEMENTS.equals(command);
+    }
+}
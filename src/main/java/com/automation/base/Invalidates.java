@@ -0,0 +1,17 @@
+package com.automation.base;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Preconditions a test method breaks (e.g. by logging out), so the next
+ * test that requires them re-establishes them without trying to reuse them.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Invalidates {
+
+    Precondition[] value();
+}
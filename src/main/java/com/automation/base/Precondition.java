@@ -0,0 +1,69 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.pages.HomePage;
+import com.automation.pages.LoginPage;
+import com.automation.pages.Navigator;
+import com.automation.pages.Pages;
+import com.automation.pages.ProductPage;
+import com.automation.utils.AppiumUtils;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * App states a test can declare with {@link Requires}. Each one knows how to
+ * establish itself through the UI, how to check that it still holds (only
+ * needed after a reset, see {@link Fixtures}), and which resets it survives.
+ * All of them leave the app on the catalog.
+ */
+public enum Precondition {
+
+    /** Logged in as valid.username. */
+    LOGGED_IN(EnumSet.of(ResetStrategy.NONE, ResetStrategy.DEEP_LINK, ResetStrategy.TERMINATE_ACTIVATE)) {
+        @Override
+        void establish(AndroidDriver driver) {
+            new Navigator(driver).navigateTo(LoginPage.class).login(
+                    AppiumUtils.getProperty("valid.username"),
+                    AppiumUtils.getProperty("valid.password"));
+        }
+
+        @Override
+        boolean holds(AndroidDriver driver) {
+            return new Navigator(driver).navigateTo(HomePage.class).isLoggedIn();
+        }
+    },
+
+    /** At least one product in the cart. */
+    CART_HAS_ITEM(EnumSet.of(ResetStrategy.NONE, ResetStrategy.DEEP_LINK)) {
+        @Override
+        void establish(AndroidDriver driver) {
+            Navigator navigator = new Navigator(driver);
+            navigator.navigateTo(HomePage.class).clickProductAtIndex(0);
+            Pages.get(driver, ProductPage.class).clickAddToCart();
+            navigator.navigateTo(HomePage.class);
+        }
+
+        @Override
+        boolean holds(AndroidDriver driver) {
+            return new Navigator(driver).navigateTo(HomePage.class).hasCartItems();
+        }
+    };
+
+    private final Set<ResetStrategy> survives;
+
+    Precondition(Set<ResetStrategy> survives) {
+        this.survives = survives;
+    }
+
+    /** Bring the app into this state. */
+    abstract void establish(AndroidDriver driver);
+
+    /** Check that a previously established state is still there after a reset it should survive. */
+    abstract boolean holds(AndroidDriver driver);
+
+    /** Whether the state is still there after the given reset. */
+    boolean survives(ResetStrategy strategy) {
+        return survives.contains(strategy);
+    }
+}
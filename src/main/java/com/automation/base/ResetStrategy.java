@@ -0,0 +1,92 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.pages.ElementCache;
+import com.automation.pages.Navigator;
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.LatencyMetrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ways to bring the app under test back to a known state between tests,
+ * roughly from cheapest to most thorough. The time each one takes is recorded
+ * under the "reset" latency category so the cheapest sufficient one can be chosen.
+ */
+public enum ResetStrategy {
+
+    /** Leave the app as the previous test left it. */
+    NONE {
+        @Override
+        void reset(AndroidDriver driver, String appPackage) {
+        }
+    },
+
+    /** Deep-link back to the catalog; keeps the process, login and cart. */
+    DEEP_LINK {
+        @Override
+        void reset(AndroidDriver driver, String appPackage) {
+            Navigator.openDeepLink(driver, AppiumUtils.getProperty("app.deeplink.home", "mydemoapprn://store-overview"));
+        }
+    },
+
+    /** Kill and relaunch the app process; in-memory state (cart, screen stack) is lost. */
+    TERMINATE_ACTIVATE {
+        @Override
+        void reset(AndroidDriver driver, String appPackage) {
+            driver.terminateApp(appPackage);
+            driver.activateApp(appPackage);
+        }
+    },
+
+    /** pm clear the app data, then relaunch; persisted state (login) is lost too. */
+    CLEAR_DATA {
+        @Override
+        void reset(AndroidDriver driver, String appPackage) {
+            Map<String, Object> args = new HashMap<>();
+            args.put("appId", appPackage);
+            driver.executeScript("mobile: clearApp", args);
+            driver.activateApp(appPackage);
+        }
+    },
+
+    /** Uninstall and install the APK again. */
+    REINSTALL {
+        @Override
+        void reset(AndroidDriver driver, String appPackage) {
+            driver.terminateApp(appPackage);
+            driver.removeApp(appPackage);
+            driver.installApp(System.getProperty("user.dir") + "/" + AppiumUtils.getProperty("app.path"));
+            driver.activateApp(appPackage);
+        }
+    };
+
+    abstract void reset(AndroidDriver driver, String appPackage);
+
+    /** Apply the strategy to the app from config and return the time it took in milliseconds. */
+    public long apply(AndroidDriver driver) {
+        long start = System.nanoTime();
+        reset(driver, AppiumUtils.getProperty("app.package"));
+        if (this != NONE) {
+            ElementCache.invalidate(driver);
+        }
+        Fixtures.afterReset(driver, this);
+        long elapsed = System.nanoTime() - start;
+        if (this != NONE) {
+            LatencyMetrics.record(LatencyMetrics.RESET, name(), elapsed);
+        }
+        return elapsed / 1_000_000;
+    }
+
+    /** Strategy named by a config property, or the fallback if unset or unknown. */
+    public static ResetStrategy fromProperty(String key, ResetStrategy fallback) {
+        String value = AppiumUtils.getProperty(key, fallback.name());
+        try {
+            return ResetStrategy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Unknown reset strategy '" + value + "' for " + key + ", using " + fallback);
+            return fallback;
+        }
+    }
+}
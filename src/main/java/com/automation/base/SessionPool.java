@@ -0,0 +1,349 @@
+package com.automation.base;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.Tracer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of warm AndroidDriver sessions shared by all test classes.
+ *
+ * A UiAutomator2 session takes tens of seconds to bootstrap, so instead of
+ * quitting the driver after every class the session is returned here and
+ * leased to the next class. Before a session is handed out again it is
+ * health-checked and the app under test is reset (session.reset.strategy).
+ * Sessions are quit once they have served session.max.uses leases.
+ * Idle sessions are kept per device, since a session is bound to the device
+ * it was created on.
+ *
+ * Session work is pipelined with test execution: sessions for the first
+ * classes are created in the background when the suite starts, a returned
+ * session is reset in the background, and a used-up session is quit and
+ * replaced in the background while other classes run. Speculation is bounded
+ * by the devices (one session each) and by the leases the suite still needs.
+ * A lease only waits for whatever part of that work is unfinished; the
+ * startup time hidden this way is reported at the end of the run.
+ *
+ * Background work runs on the session's own device, so it only overlaps with
+ * tests on other devices. The device is free again as soon as the class
+ * releases it; {@link DeviceScheduler} prefers a free device whose session is
+ * already prepared, but when it is the only free one (as many devices as
+ * workers) the next class waits for the reset, and that time is counted as
+ * waited, not hidden.
+ */
+public class SessionPool {
+
+    private static final Map<Device, ConcurrentLinkedDeque<CompletableFuture<PooledSession>>> idle =
+            new ConcurrentHashMap<>();
+    private static final Map<AndroidDriver, PooledSession> leased = new ConcurrentHashMap<>();
+
+    // Leases the suite will still ask for; negative when unknown
+    private static final AtomicInteger expectedLeases = new AtomicInteger(-1);
+    private static volatile ExecutorService warmer;
+
+    private static final LongAdder coldStarts = new LongAdder();
+    private static final LongAdder coldMillis = new LongAdder();
+    private static final LongAdder backgroundTasks = new LongAdder();
+    private static final LongAdder backgroundMillis = new LongAdder();
+    private static final LongAdder waitedMillis = new LongAdder();
+    private static final LongAdder hiddenMillis = new LongAdder();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SessionPool::shutdown, "session-pool-shutdown"));
+    }
+
+    private SessionPool() {
+    }
+
+    /** Lease a healthy session on the device, reusing an idle or pre-warmed one when possible. */
+    public static AndroidDriver lease(Device device) {
+        expectedLeases.getAndUpdate(n -> n > 0 ? n - 1 : n);
+        ConcurrentLinkedDeque<CompletableFuture<PooledSession>> sessions = idleSessions(device);
+        CompletableFuture<PooledSession> next;
+        PooledSession session = null;
+        while (session == null && (next = sessions.pollFirst()) != null) {
+            session = await(next);
+            if (session != null && !isHealthy(session.driver)) {
+                System.out.println("Discarding unhealthy pooled session " + session.driver.getSessionId());
+                quitQuietly(session.driver);
+                session = null;
+            }
+        }
+
+        if (session == null) {
+            long start = System.nanoTime();
+            session = new PooledSession(device, DriverFactory.createDriver(device));
+            coldStarts.increment();
+            coldMillis.add(millisSince(start));
+        } else if (session.uses > 0) {
+            if (session.needsReset) {
+                resetAppState(session.driver);
+                session.needsReset = false;
+            }
+            System.out.println("Reusing pooled session " + session.driver.getSessionId()
+                    + " (lease " + (session.uses + 1) + ")");
+        } else {
+            System.out.println("Using pre-warmed session " + session.driver.getSessionId() + " on " + device);
+        }
+
+        session.uses++;
+        leased.put(session.driver, session);
+        return session.driver;
+    }
+
+    /**
+     * Return a session to the pool. It is reset in the background for the
+     * next lease, or, if pooling is off or it is used up, quit and replaced
+     * in the background while the suite still needs sessions.
+     */
+    public static void release(AndroidDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        PooledSession session = leased.remove(driver);
+        if (session == null) {
+            quitQuietly(driver);
+            return;
+        }
+        if (!isPoolingEnabled() || session.uses >= maxUses()) {
+            if (isPrewarmEnabled() && isNeeded()) {
+                // Quit and recreate on the device before the next class asks for it
+                idleSessions(session.device).offerFirst(background(session.device, "replace", () -> {
+                    quitQuietly(driver);
+                    return new PooledSession(session.device, DriverFactory.createDriver(session.device));
+                }));
+            } else {
+                quitQuietly(driver);
+            }
+            return;
+        }
+        if (isPrewarmEnabled()) {
+            idleSessions(session.device).offerFirst(background(session.device, "reset", () -> {
+                try {
+                    resetAppState(driver);
+                } catch (RuntimeException e) {
+                    quitQuietly(driver);
+                    throw e;
+                }
+                return session;
+            }));
+        } else {
+            // Reset when leased, as before
+            session.needsReset = true;
+            idleSessions(session.device).offerFirst(CompletableFuture.completedFuture(session));
+        }
+    }
+
+    /**
+     * Start creating sessions in the background for a suite that will lease
+     * the given number of sessions, on at most one idle device each.
+     */
+    public static void prewarm(Collection<Device> devices, int leases) {
+        expectedLeases.set(leases);
+        if (!isPrewarmEnabled()) {
+            return;
+        }
+        int started = 0;
+        for (Device device : devices) {
+            if (started >= leases) {
+                break;
+            }
+            ConcurrentLinkedDeque<CompletableFuture<PooledSession>> sessions = idleSessions(device);
+            if (sessions.isEmpty()) {
+                sessions.offerLast(background(device, "prewarm",
+                        () -> new PooledSession(device, DriverFactory.createDriver(device))));
+                started++;
+            }
+        }
+        if (started > 0) {
+            System.out.println("Pre-warming " + started + " sessions for " + leases + " expected leases");
+        }
+    }
+
+    /** Quit every idle session, waiting for background work first. Leased sessions are left to their owners. */
+    public static void shutdown() {
+        for (ConcurrentLinkedDeque<CompletableFuture<PooledSession>> sessions : idle.values()) {
+            CompletableFuture<PooledSession> next;
+            while ((next = sessions.pollFirst()) != null) {
+                try {
+                    PooledSession session = next.get(60, TimeUnit.SECONDS);
+                    if (session != null) {
+                        quitQuietly(session.driver);
+                    }
+                } catch (Exception e) {
+                    System.out.println("Pooled session did not finish preparing: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // ======= METRICS =======
+
+    /** Rows (metric, value) describing how much session startup was overlapped with tests. */
+    public static String[][] toTable() {
+        return new String[][]{
+                {"metric", "value"},
+                {"cold starts (lease waited for a new session)", String.valueOf(coldStarts.sum())},
+                {"cold start ms", String.valueOf(coldMillis.sum())},
+                {"background tasks (create / reset / replace)", String.valueOf(backgroundTasks.sum())},
+                {"background ms", String.valueOf(backgroundMillis.sum())},
+                {"ms leases waited on background work", String.valueOf(waitedMillis.sum())},
+                {"startup ms hidden (prepared before the lease asked)", String.valueOf(hiddenMillis.sum())}
+        };
+    }
+
+    public static long hiddenMillis() {
+        return hiddenMillis.sum();
+    }
+
+    public static boolean isPrewarmEnabled() {
+        return AppiumUtils.getBooleanProperty("session.prewarm.enabled", true);
+    }
+
+    /** Whether the device's next session is prepared, so leasing it would not wait. */
+    static boolean hasReadySession(Device device) {
+        CompletableFuture<PooledSession> next = idleSessions(device).peekFirst();
+        return next != null && next.isDone();
+    }
+
+    // ======= HELPERS =======
+
+    private static ConcurrentLinkedDeque<CompletableFuture<PooledSession>> idleSessions(Device device) {
+        return idle.computeIfAbsent(device, d -> new ConcurrentLinkedDeque<>());
+    }
+
+    /** Whether another session is worth preparing: the suite needs more leases than are already on the way. */
+    private static boolean isNeeded() {
+        int expected = expectedLeases.get();
+        if (expected < 0) {
+            return true;
+        }
+        int queued = 0;
+        for (ConcurrentLinkedDeque<CompletableFuture<PooledSession>> sessions : idle.values()) {
+            queued += sessions.size();
+        }
+        return expected > queued;
+    }
+
+    private static CompletableFuture<PooledSession> background(Device device, String kind, SessionTask task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                PooledSession session = task.run();
+                session.preparedMillis = millisSince(start);
+                return session;
+            } catch (RuntimeException e) {
+                System.out.println("Background session preparation failed: " + e.getMessage());
+                return null;
+            } finally {
+                Tracer.end(Tracer.SESSION, "SessionPool." + kind, start, device.getUdid());
+                backgroundTasks.increment();
+                backgroundMillis.add(millisSince(start));
+            }
+        }, warmer());
+    }
+
+    /** The prepared session, recording how long the lease had to wait and how much work it was spared. */
+    private static PooledSession await(CompletableFuture<PooledSession> future) {
+        long start = System.nanoTime();
+        PooledSession session = future.join();
+        long waited = millisSince(start);
+        if (session != null && session.preparedMillis >= 0) {
+            waitedMillis.add(waited);
+            hiddenMillis.add(Math.max(0, session.preparedMillis - waited));
+            session.preparedMillis = -1;
+        }
+        return session;
+    }
+
+    private static ExecutorService warmer() {
+        ExecutorService executor = warmer;
+        if (executor == null) {
+            synchronized (SessionPool.class) {
+                if (warmer == null) {
+                    // Blocking HTTP only: virtual threads where available
+                    warmer = Executors.newFixedThreadPool(
+                            Math.max(1, AppiumUtils.getIntProperty("session.prewarm.threads", 4)),
+                            daemon(VirtualThreads.isSupported()
+                                    ? VirtualThreads.factory("session-warmer-")
+                                    : runnable -> new Thread(runnable, "session-warmer")));
+                }
+                executor = warmer;
+            }
+        }
+        return executor;
+    }
+
+    private static ThreadFactory daemon(ThreadFactory factory) {
+        return runnable -> {
+            Thread thread = factory.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static long millisSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static boolean isPoolingEnabled() {
+        return AppiumUtils.getBooleanProperty("session.pool.enabled", true);
+    }
+
+    private static int maxUses() {
+        return AppiumUtils.getIntProperty("session.max.uses", 5);
+    }
+
+    /** Cheap session-bound round trip: fails fast if the session or device is gone. */
+    private static boolean isHealthy(AndroidDriver driver) {
+        try {
+            return driver.getSessionId() != null
+                    && driver.queryAppState(AppiumUtils.getProperty("app.package")) != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /** Reset the app so the next test class starts from the launch screen. */
+    private static void resetAppState(AndroidDriver driver) {
+        ResetStrategy.fromProperty("session.reset.strategy", ResetStrategy.TERMINATE_ACTIVATE).apply(driver);
+    }
+
+    private static void quitQuietly(AndroidDriver driver) {
+        try {
+            driver.quit();
+            System.out.println("Driver closed successfully");
+        } catch (Exception e) {
+            System.out.println("Failed to close driver: " + e.getMessage());
+        }
+    }
+
+    private interface SessionTask {
+        PooledSession run();
+    }
+
+    private static class PooledSession {
+        private final Device device;
+        private final AndroidDriver driver;
+        private int uses;
+        private boolean needsReset;
+        // Time spent preparing it in the background, until a lease accounts for it
+        private volatile long preparedMillis = -1;
+
+        private PooledSession(Device device, AndroidDriver driver) {
+            this.device = device;
+            this.driver = driver;
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package com.automation.base;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Static index of what each test method touches, built from bytecode.
+ *
+ * Starting from the test method, its class's configuration methods (including
+ * inherited ones like BaseTest.setUp) and the classes named in its annotations,
+ * every call, field access and class reference inside com.automation is
+ * followed, including overrides of reached methods, lambdas and classes passed
+ * as literals (Pages.get(driver, HomePage.class) reaches HomePage's
+ * constructor). The result per test is the set of framework methods it can
+ * reach and the @AndroidFindBy locator fields it reads.
+ *
+ * Locators read by reflection are not field instructions: a test that reaches
+ * PageMetadata.locators() (Navigator looking up {@code @Screen} markers while
+ * detecting the current screen) reads the marker field of every screen.
+ */
+public class TestImpactIndex {
+
+    private static final String ROOT_PACKAGE = "com/automation/";
+    private static final String TESTNG_ANNOTATIONS = "Lorg/testng/annotations/";
+    private static final String LOCATOR_ANNOTATION = "Lio/appium/java_client/pagefactory/AndroidFindBy;";
+    private static final String SCREEN_ANNOTATION = "Lcom/automation/pages/Screen;";
+    private static final String REFLECTIVE_LOCATORS = "com.automation.pages.PageMetadata#locators";
+
+    private final Map<String, ClassInfo> classes = new HashMap<>();
+    private final Map<String, Reach> tests = new TreeMap<>();
+
+    private TestImpactIndex() {
+    }
+
+    /** Index every test method of the given classes. */
+    public static TestImpactIndex build(Collection<Class<?>> testClasses) {
+        TestImpactIndex index = new TestImpactIndex();
+        for (Class<?> testClass : testClasses) {
+            ClassInfo info = index.load(Type.getInternalName(testClass));
+            if (info == null) {
+                continue;
+            }
+            for (MethodInfo method : info.methods.values()) {
+                if (method.isTest) {
+                    index.tests.put(testClass.getName() + "#" + method.name, index.reach(info, method));
+                }
+            }
+        }
+        return index;
+    }
+
+    /** Test ids ("class#method") that can reach any of the changed code. */
+    public Set<String> impactedBy(ChangeSet changes) {
+        Set<String> impacted = new TreeSet<>();
+        for (Map.Entry<String, Reach> test : tests.entrySet()) {
+            if (test.getValue().touches(changes, this)) {
+                impacted.add(test.getKey());
+            }
+        }
+        return impacted;
+    }
+
+    public Set<String> testIds() {
+        return tests.keySet();
+    }
+
+    /** Write the index (pages, locators and framework methods per test) as JSON. */
+    public void export(Path file) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (Map.Entry<String, Reach> test : tests.entrySet()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("pages", test.getValue().pages(this));
+            entry.put("locators", test.getValue().locators(this));
+            entry.put("methods", new TreeSet<>(test.getValue().methods));
+            json.put(test.getKey(), entry);
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, new Json().toJson(json).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Cannot write test impact index to " + file + ": " + e.getMessage());
+        }
+    }
+
+    // ======= REACHABILITY =======
+
+    private Reach reach(ClassInfo testClass, MethodInfo testMethod) {
+        Reach reach = new Reach();
+        Deque<MethodInfo> work = new ArrayDeque<>();
+        enqueue(reach, work, testMethod);
+        for (String annotated : testMethod.references) {
+            reachClass(reach, work, annotated);
+        }
+        // Configuration methods and class annotations apply to every test of the class
+        for (ClassInfo type = testClass; type != null; type = load(type.superName)) {
+            reach.classes.add(type.name);
+            for (String annotated : type.annotationReferences) {
+                reachClass(reach, work, annotated);
+            }
+            for (MethodInfo method : type.methods.values()) {
+                if (method.isConfiguration) {
+                    enqueue(reach, work, method);
+                }
+            }
+        }
+
+        while (!work.isEmpty()) {
+            MethodInfo method = work.poll();
+            for (String call : method.calls) {
+                int hash = call.indexOf('#');
+                String owner = call.substring(0, hash);
+                String nameAndDesc = call.substring(hash + 1);
+                reachClass(reach, work, owner);
+                // Virtual dispatch: the declared target, its supertypes' versions and every loaded override
+                for (ClassInfo type = load(owner); type != null; type = load(type.superName)) {
+                    MethodInfo target = type.methods.get(nameAndDesc);
+                    if (target != null) {
+                        enqueue(reach, work, target);
+                        break;
+                    }
+                }
+                reach.virtualCalls.add(call);
+                for (ClassInfo type : new ArrayList<>(classes.values())) {
+                    if (type == null) {
+                        continue;
+                    }
+                    MethodInfo override = type.methods.get(nameAndDesc);
+                    if (override != null && reach.classes.contains(type.name) && isSubtype(type, owner)) {
+                        enqueue(reach, work, override);
+                    }
+                }
+            }
+            for (String field : method.fields) {
+                reach.fields.add(field);
+                reachClass(reach, work, field.substring(0, field.indexOf('.')));
+            }
+            for (String type : method.references) {
+                reachClass(reach, work, type);
+            }
+        }
+        return reach;
+    }
+
+    private void reachClass(Reach reach, Deque<MethodInfo> work, String internalName) {
+        ClassInfo type = load(internalName);
+        if (type == null || !reach.classes.add(type.name)) {
+            return;
+        }
+        // Static init and constructors: classes named by literal are often instantiated reflectively
+        for (MethodInfo method : type.methods.values()) {
+            if (method.name.equals("<clinit>") || method.name.equals("<init>")) {
+                enqueue(reach, work, method);
+            }
+        }
+        // Overrides of calls already reached, now that this subtype is in play
+        for (String call : new ArrayList<>(reach.virtualCalls)) {
+            int hash = call.indexOf('#');
+            MethodInfo override = type.methods.get(call.substring(hash + 1));
+            if (override != null && isSubtype(type, call.substring(0, hash))) {
+                enqueue(reach, work, override);
+            }
+        }
+        if (type.superName != null) {
+            reachClass(reach, work, type.superName);
+        }
+    }
+
+    private static void enqueue(Reach reach, Deque<MethodInfo> work, MethodInfo method) {
+        if (reach.methods.add(method.id())) {
+            work.add(method);
+        }
+    }
+
+    private boolean isSubtype(ClassInfo type, String ancestor) {
+        for (ClassInfo current = type; current != null; current = load(current.superName)) {
+            if (current.name.equals(ancestor) || current.interfaces.contains(ancestor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ======= BYTECODE =======
+
+    ClassInfo load(String internalName) {
+        if (internalName == null || !internalName.startsWith(ROOT_PACKAGE)) {
+            return null;
+        }
+        if (classes.containsKey(internalName)) {
+            return classes.get(internalName);
+        }
+        ClassInfo info = null;
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = TestImpactIndex.class.getClassLoader();
+        }
+        try (InputStream in = loader.getResourceAsStream(internalName + ".class")) {
+            if (in != null) {
+                info = new ClassInfo(internalName);
+                new ClassReader(in).accept(info.visitor(), 0);
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot read bytecode of " + internalName + ": " + e.getMessage());
+        }
+        classes.put(internalName, info);
+        return info;
+    }
+
+    /** Classes compiled from the given source file, e.g. HomePage and HomePage$1. */
+    List<ClassInfo> classesOf(String internalName) {
+        load(internalName);
+        List<ClassInfo> result = new ArrayList<>();
+        for (ClassInfo info : classes.values()) {
+            if (info != null && (info.name.equals(internalName) || info.name.startsWith(internalName + "$"))) {
+                result.add(info);
+            }
+        }
+        return result;
+    }
+
+    static final class ClassInfo {
+        final String name;
+        String superName;
+        final Set<String> interfaces = new HashSet<>();
+        final Map<String, MethodInfo> methods = new LinkedHashMap<>();
+        final Set<String> locatorFields = new HashSet<>();
+        final Set<String> annotationReferences = new HashSet<>();
+        String screenMarker;
+
+        ClassInfo(String name) {
+            this.name = name;
+        }
+
+        ClassVisitor visitor() {
+            return new ClassVisitor(Opcodes.ASM9) {
+                @Override
+                public void visit(int version, int access, String name, String signature,
+                                  String superName, String[] interfaceNames) {
+                    ClassInfo.this.superName = superName;
+                    if (interfaceNames != null) {
+                        for (String interfaceName : interfaceNames) {
+                            interfaces.add(interfaceName);
+                        }
+                    }
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    if (!SCREEN_ANNOTATION.equals(descriptor)) {
+                        return enumCollector(annotationReferences);
+                    }
+                    return new AnnotationVisitor(Opcodes.ASM9, enumCollector(annotationReferences)) {
+                        @Override
+                        public void visit(String name, Object value) {
+                            if ("marker".equals(name)) {
+                                screenMarker = (String) value;
+                            }
+                        }
+                    };
+                }
+
+                @Override
+                public FieldVisitor visitField(int access, String fieldName, String descriptor,
+                                               String signature, Object value) {
+                    return new FieldVisitor(Opcodes.ASM9) {
+                        @Override
+                        public AnnotationVisitor visitAnnotation(String annotation, boolean visible) {
+                            if (LOCATOR_ANNOTATION.equals(annotation)) {
+                                locatorFields.add(fieldName);
+                            }
+                            return null;
+                        }
+                    };
+                }
+
+                @Override
+                public MethodVisitor visitMethod(int access, String methodName, String descriptor,
+                                                 String signature, String[] exceptions) {
+                    MethodInfo method = new MethodInfo(name, methodName, descriptor);
+                    methods.put(methodName + descriptor, method);
+                    return method.visitor();
+                }
+            };
+        }
+    }
+
+    static final class MethodInfo {
+        final String owner;
+        final String name;
+        final String descriptor;
+        final Set<String> calls = new HashSet<>();
+        final Set<String> fields = new HashSet<>();
+        final Set<String> references = new HashSet<>();
+        boolean isTest;
+        boolean isConfiguration;
+        int firstLine = Integer.MAX_VALUE;
+        int lastLine = -1;
+
+        MethodInfo(String owner, String name, String descriptor) {
+            this.owner = owner;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        String id() {
+            return owner.replace('/', '.') + "#" + name;
+        }
+
+        boolean containsLine(int line) {
+            // One line of slack for the signature above the first statement and the closing brace
+            return lastLine >= 0 && line >= firstLine - 1 && line <= lastLine + 1;
+        }
+
+        MethodVisitor visitor() {
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+                    if (descriptor.equals(TESTNG_ANNOTATIONS + "Test;")) {
+                        isTest = true;
+                    } else if (descriptor.startsWith(TESTNG_ANNOTATIONS + "Before")
+                            || descriptor.startsWith(TESTNG_ANNOTATIONS + "After")) {
+                        isConfiguration = true;
+                    }
+                    return enumCollector(references);
+                }
+
+                @Override
+                public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean itf) {
+                    calls.add(owner + "#" + name + descriptor);
+                }
+
+                @Override
+                public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+                    fields.add(owner + "." + name);
+                }
+
+                @Override
+                public void visitTypeInsn(int opcode, String type) {
+                    references.add(type);
+                }
+
+                @Override
+                public void visitLdcInsn(Object value) {
+                    if (value instanceof Type && ((Type) value).getSort() == Type.OBJECT) {
+                        references.add(((Type) value).getInternalName());
+                    }
+                }
+
+                @Override
+                public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrap, Object... args) {
+                    for (Object arg : args) {
+                        if (arg instanceof Handle) {
+                            Handle handle = (Handle) arg;
+                            calls.add(handle.getOwner() + "#" + handle.getName() + handle.getDesc());
+                        }
+                    }
+                }
+
+                @Override
+                public void visitLineNumber(int line, Label start) {
+                    firstLine = Math.min(firstLine, line);
+                    lastLine = Math.max(lastLine, line);
+                }
+            };
+        }
+    }
+
+    /** Collects the enum types used as annotation values, e.g. ResetStrategy in @AppReset(DEEP_LINK). */
+    private static AnnotationVisitor enumCollector(Set<String> into) {
+        return new AnnotationVisitor(Opcodes.ASM9) {
+            @Override
+            public void visitEnum(String name, String descriptor, String value) {
+                into.add(Type.getType(descriptor).getInternalName());
+            }
+
+            @Override
+            public AnnotationVisitor visitArray(String name) {
+                return this;
+            }
+
+            @Override
+            public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+                return this;
+            }
+        };
+    }
+
+    // ======= RESULT =======
+
+    /** Everything one test can reach. */
+    private static final class Reach {
+        final Set<String> classes = new HashSet<>();
+        final Set<String> methods = new HashSet<>();
+        final Set<String> fields = new HashSet<>();
+        final Set<String> virtualCalls = new HashSet<>();
+
+        boolean touches(ChangeSet changes, TestImpactIndex index) {
+            for (String type : classes) {
+                if (changes.changedClasses().contains(type.replace('/', '.'))) {
+                    return true;
+                }
+            }
+            for (String method : changes.changedMethods()) {
+                if (methods.contains(method)) {
+                    return true;
+                }
+            }
+            for (String field : fieldsRead(index)) {
+                if (changes.changedFields().contains(field.replace('/', '.'))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Set<String> pages(TestImpactIndex index) {
+            Set<String> pages = new TreeSet<>();
+            for (String type : classes) {
+                if (isPage(index.load(type), index)) {
+                    pages.add(type.substring(type.lastIndexOf('/') + 1));
+                }
+            }
+            return pages;
+        }
+
+        Set<String> locators(TestImpactIndex index) {
+            Set<String> locators = new TreeSet<>();
+            for (String field : fieldsRead(index)) {
+                int dot = field.indexOf('.');
+                ClassInfo owner = index.load(field.substring(0, dot));
+                if (owner != null && owner.locatorFields.contains(field.substring(dot + 1))) {
+                    locators.add(owner.name.substring(owner.name.lastIndexOf('/') + 1) + "." + field.substring(dot + 1));
+                }
+            }
+            return locators;
+        }
+
+        /** Fields accessed directly, plus every screen marker when locators are read reflectively. */
+        private Set<String> fieldsRead(TestImpactIndex index) {
+            if (!methods.contains(REFLECTIVE_LOCATORS)) {
+                return fields;
+            }
+            // Any screen registered with Navigator may be probed, whichever test loaded it
+            Set<String> read = new HashSet<>(fields);
+            for (ClassInfo type : index.classes.values()) {
+                if (type != null && type.screenMarker != null) {
+                    read.add(type.name + "." + type.screenMarker);
+                }
+            }
+            return read;
+        }
+
+        private static boolean isPage(ClassInfo type, TestImpactIndex index) {
+            for (ClassInfo current = type; current != null; current = index.load(current.superName)) {
+                if (current.name.equals("com/automation/pages/BasePage")) {
+                    return type.superName != null && !type.name.equals(current.name);
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.automation.base;
+
+import com.automation.utils.AppiumUtils;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * HTTP transport for the Appium client built on the JDK HttpClient.
+ *
+ * One JDK client (and so one persistent connection pool) is shared by every
+ * session the factory creates. Timeouts are chosen per command: session
+ * creation and app installs (install_app, mobile: installApp) get
+ * http.timeout.session while all other commands get http.timeout.command,
+ * or the caller's {@link ClientConfig#readTimeout()} when that is not set. HTTP/2 and gzip
+ * responses are optional. WebSocket connections (e.g. logcat) use Selenium's
+ * default client.
+ */
+public class TunedHttpClientFactory implements HttpClient.Factory {
+
+    private static final Set<String> RESTRICTED_HEADERS =
+            Set.of("connection", "content-length", "expect", "host", "upgrade");
+    private static final Pattern INSTALL_SCRIPT = Pattern.compile("\"script\"\\s*:\\s*\"mobile:\\s*installApp\"");
+
+    private static TunedHttpClientFactory shared;
+
+    private final java.net.http.HttpClient client;
+    private final Duration sessionTimeout;
+    // Null: each client's own ClientConfig.readTimeout()
+    private final Duration commandTimeout;
+    private final boolean compression;
+
+    public TunedHttpClientFactory(Duration connectTimeout, Duration sessionTimeout, Duration commandTimeout,
+                                  boolean http2, boolean compression) {
+        this.client = java.net.http.HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .version(http2 ? java.net.http.HttpClient.Version.HTTP_2 : java.net.http.HttpClient.Version.HTTP_1_1)
+                .followRedirects(java.net.http.HttpClient.Redirect.NEVER)
+                .build();
+        this.sessionTimeout = sessionTimeout;
+        this.commandTimeout = commandTimeout;
+        this.compression = compression;
+    }
+
+    /** Factory configured from config.properties, shared by every session of the run. */
+    public static synchronized TunedHttpClientFactory shared() {
+        if (shared == null) {
+            // Pool settings are read by the JDK client when its first instance is created
+            setDefaultProperty("jdk.httpclient.keepalive.timeout",
+                    AppiumUtils.getProperty("http.keepalive.timeout", "300"));
+            setDefaultProperty("jdk.httpclient.connectionPoolSize",
+                    AppiumUtils.getProperty("http.pool.size", "0"));
+            int commandSeconds = AppiumUtils.getIntProperty("http.timeout.command", 0);
+            shared = new TunedHttpClientFactory(
+                    Duration.ofSeconds(AppiumUtils.getIntProperty("http.timeout.connect", 10)),
+                    Duration.ofSeconds(AppiumUtils.getIntProperty("http.timeout.session", 300)),
+                    commandSeconds > 0 ? Duration.ofSeconds(commandSeconds) : null,
+                    AppiumUtils.getBooleanProperty("http.http2", false),
+                    AppiumUtils.getBooleanProperty("http.compression", true));
+        }
+        return shared;
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new Client(config);
+    }
+
+    // ======= HELPERS =======
+
+    private static void setDefaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /** New-session and install requests may push the APK, every other command should be quick. */
+    private Duration timeoutFor(ClientConfig config, HttpRequest request, byte[] body) {
+        if (request.getMethod() == HttpMethod.POST) {
+            String path = request.getUri().replaceAll("/+$", "");
+            boolean install = path.endsWith("/appium/device/install_app")
+                    || ((path.endsWith("/execute/sync") || path.endsWith("/execute"))
+                    && INSTALL_SCRIPT.matcher(new String(body, StandardCharsets.UTF_8)).find());
+            if (path.endsWith("/session") || install) {
+                return sessionTimeout;
+            }
+        }
+        return commandTimeout != null ? commandTimeout : config.readTimeout();
+    }
+
+    private static String buildUri(ClientConfig config, HttpRequest request) {
+        String base = config.baseUri().toString().replaceAll("/+$", "");
+        StringBuilder uri = new StringBuilder(base).append(request.getUri());
+        char separator = request.getUri().contains("?") ? '&' : '?';
+        for (String name : request.getQueryParameterNames()) {
+            for (String value : request.getQueryParameters(name)) {
+                uri.append(separator)
+                        .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return uri.toString();
+    }
+
+    /** One Selenium HttpClient per session, all sharing the JDK client's pool. */
+    private final class Client implements HttpClient {
+
+        private final ClientConfig config;
+        private final HttpHandler handler;
+        // Not synchronized: opening a socket is network I/O and would pin a virtual thread
+        private final ReentrantLock socketLock = new ReentrantLock();
+        private HttpClient webSocketClient;
+
+        private Client(ClientConfig config) {
+            this.config = config;
+            this.handler = config.filter().andFinally(this::send);
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            return handler.execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            socketLock.lock();
+            try {
+                if (webSocketClient == null) {
+                    webSocketClient = HttpClient.Factory.createDefault().createClient(config);
+                }
+                return webSocketClient.openSocket(request, listener);
+            } finally {
+                socketLock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            socketLock.lock();
+            try {
+                if (webSocketClient != null) {
+                    webSocketClient.close();
+                    webSocketClient = null;
+                }
+            } finally {
+                socketLock.unlock();
+            }
+        }
+
+        private HttpResponse send(HttpRequest request) {
+            byte[] body = Contents.bytes(request.getContent());
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest
+                    .newBuilder(URI.create(buildUri(config, request)))
+                    .timeout(timeoutFor(config, request, body));
+            for (String name : request.getHeaderNames()) {
+                if (RESTRICTED_HEADERS.contains(name.toLowerCase())) {
+                    continue;
+                }
+                for (String value : request.getHeaders(name)) {
+                    builder.header(name, value);
+                }
+            }
+            if (compression) {
+                builder.header("Accept-Encoding", "gzip");
+            }
+
+            builder.method(request.getMethod().name(),
+                    body.length == 0 ? BodyPublishers.noBody() : BodyPublishers.ofByteArray(body));
+
+            java.net.http.HttpResponse<byte[]> response;
+            try {
+                response = client.send(builder.build(), BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new IOException("Interrupted during " + request, e));
+            }
+            return toSeleniumResponse(response);
+        }
+
+        private HttpResponse toSeleniumResponse(java.net.http.HttpResponse<byte[]> response) {
+            HttpResponse result = new HttpResponse().setStatus(response.statusCode());
+            boolean gzipped = false;
+            for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+                String name = header.getKey();
+                if ("content-encoding".equalsIgnoreCase(name) && header.getValue().contains("gzip")) {
+                    gzipped = true;
+                    continue;
+                }
+                if ("content-length".equalsIgnoreCase(name)) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    result.addHeader(name, value);
+                }
+            }
+            byte[] body = gzipped ? gunzip(response.body()) : response.body();
+            result.setContent(Contents.bytes(body));
+            return result;
+        }
+    }
+
+    private static byte[] gunzip(byte[] body) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.automation.base;
+
+import org.testng.IDynamicGraph;
+import org.testng.ISuite;
+import org.testng.ITestNGMethod;
+import org.testng.internal.thread.DefaultThreadPoolExecutorFactory;
+import org.testng.thread.IExecutorFactory;
+import org.testng.thread.ITestNGThreadPoolExecutor;
+import org.testng.thread.IThreadWorkerFactory;
+
+import java.util.Comparator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TestNG executor factory that runs parallel test classes on virtual threads.
+ *
+ * Install it with -threadpoolfactoryclass when launching TestNG directly:
+ * {@code java org.testng.TestNG -threadpoolfactoryclass com.automation.base.VirtualThreadExecutorFactory testng.xml}.
+ * {@link DeviceAwareSuiteListener} then turns the per-device {@code <test>}
+ * blocks into one block with parallel="classes" and a thread per class, so
+ * each class waits for its device lease and Appium responses on a cheap
+ * virtual thread instead of a platform thread per device. The executors are
+ * TestNG's own; only their thread factory changes.
+ */
+public class VirtualThreadExecutorFactory implements IExecutorFactory {
+
+    private final IExecutorFactory delegate = new DefaultThreadPoolExecutorFactory();
+
+    public VirtualThreadExecutorFactory() {
+        VirtualThreads.request();
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newSuiteExecutor(String name, IDynamicGraph<ISuite> graph,
+            IThreadWorkerFactory<ISuite> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+            TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ISuite> comparator) {
+        return delegate.newSuiteExecutor(name, graph, factory, corePoolSize, maximumPoolSize, keepAliveTime,
+                unit, workQueue, comparator);
+    }
+
+    @Override
+    public ITestNGThreadPoolExecutor newTestMethodExecutor(String name, IDynamicGraph<ITestNGMethod> graph,
+            IThreadWorkerFactory<ITestNGMethod> factory, int corePoolSize, int maximumPoolSize, long keepAliveTime,
+            TimeUnit unit, BlockingQueue<Runnable> workQueue, Comparator<ITestNGMethod> comparator) {
+        ITestNGThreadPoolExecutor executor = delegate.newTestMethodExecutor(name, graph, factory, corePoolSize,
+                maximumPoolSize, keepAliveTime, unit, workQueue, comparator);
+        if (VirtualThreads.isActive() && executor instanceof ThreadPoolExecutor) {
+            // Threads are created lazily, so swapping the factory before run() covers all of them
+            ((ThreadPoolExecutor) executor).setThreadFactory(VirtualThreads.factory("TestNG-virtual-"));
+        }
+        return executor;
+    }
+}
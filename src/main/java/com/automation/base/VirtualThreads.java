@@ -0,0 +1,71 @@
+package com.automation.base;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Access to Java 21 virtual threads from code compiled for Java 11.
+ *
+ * The builder API is looked up reflectively, so on older JVMs (or 19/20
+ * without --enable-preview) {@link #factory(String)} quietly falls back to
+ * named platform threads. Virtual mode is switched on by launching TestNG
+ * with {@link VirtualThreadExecutorFactory}.
+ */
+public class VirtualThreads {
+
+    private static final boolean SUPPORTED = named("virtual-probe-") != null;
+    private static volatile boolean requested;
+
+    private VirtualThreads() {
+    }
+
+    /** Whether this JVM can start virtual threads. */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /** Whether this run executes test classes on virtual threads. */
+    public static boolean isActive() {
+        return requested && isSupported();
+    }
+
+    static void request() {
+        if (!requested) {
+            requested = true;
+            System.out.println(isSupported()
+                    ? "Virtual-thread mode: one virtual thread per test class session"
+                    : "Virtual-thread mode needs Java 21+ (running " + System.getProperty("java.version")
+                    + "), using platform threads");
+        }
+    }
+
+    /** Factory for threads named prefix0, prefix1, ...: virtual when supported, platform otherwise. */
+    public static ThreadFactory factory(String prefix) {
+        ThreadFactory virtual = SUPPORTED ? named(prefix) : null;
+        if (virtual != null) {
+            return virtual;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + counter.getAndIncrement());
+    }
+
+    // ======= REFLECTION =======
+
+    /** Thread.ofVirtual().name(prefix, 0).factory(), or null when unavailable. */
+    private static ThreadFactory named(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // Preview API present but not enabled
+            return null;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.automation.base;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One coordinator/runner socket carrying newline-delimited JSON messages,
+ * each with an "op" field. Sends are atomic per message, and
+ * {@link #request} pairs a message with its reply, so several threads can
+ * share a connection.
+ */
+final class WorkQueueConnection implements Closeable {
+
+    private static final Json JSON = new Json();
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    WorkQueueConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+    }
+
+    /** Connect to host:port, retrying until the coordinator is up or the timeout passes. */
+    static WorkQueueConnection connect(String address, long timeoutMillis) {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Coordinator address must be host:port, was '" + address + "'");
+        }
+        String host = address.substring(0, colon);
+        int port = Integer.parseInt(address.substring(colon + 1));
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            Socket socket = new Socket();
+            try {
+                socket.connect(new InetSocketAddress(host, port), 5000);
+                return new WorkQueueConnection(socket);
+            } catch (IOException e) {
+                closeQuietly(socket);
+                if (System.currentTimeMillis() > deadline) {
+                    throw new RuntimeException("Cannot reach coordinator at " + address + ": " + e.getMessage());
+                }
+                sleep(1000);
+            }
+        }
+    }
+
+    void send(Map<String, Object> message) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        try (JsonOutput json = JSON.newOutput(line)) {
+            json.setPrettyPrint(false);
+            json.write(message);
+        }
+        lock.lock();
+        try {
+            out.write(line.append('\n').toString());
+            out.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The next message, or null once the other side has closed the connection. */
+    Map<String, Object> receive() throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+        } while (line != null && line.isBlank());
+        return line == null ? null : JSON.toType(line, Json.MAP_TYPE);
+    }
+
+    /** Send a message and wait for its reply. */
+    Map<String, Object> request(Map<String, Object> message) throws IOException {
+        lock.lock();
+        try {
+            send(message);
+            Map<String, Object> reply = receive();
+            if (reply == null) {
+                throw new IOException("Connection closed by " + socket.getRemoteSocketAddress());
+            }
+            return reply;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    String remoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(socket);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
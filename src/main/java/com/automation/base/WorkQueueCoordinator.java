@@ -0,0 +1,507 @@
+package com.automation.base;
+
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.DurationHistory;
+import com.automation.utils.ResultHistory;
+import com.automation.utils.ResultStore;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.internal.Parser;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Owns the queue of test methods for runner JVMs / containers that pull work
+ * over a socket ({@link WorkQueueRunner}).
+ *
+ * The suite is planned like the in-JVM balancer: methods are split into
+ * coordinator.runners shards longest-first from the duration history, one
+ * item per class and shard. When coordinator.runners is 0 there is one shard
+ * per resolved coordinator.appium.hosts address, or 2 without any. Each runner claims a shard when it connects and
+ * takes its items longest-first; once its shard is empty it steals from the
+ * tail of the shard with the most predicted work left, splitting a
+ * multi-method item of a class without dependencies in half. Items of a
+ * runner that disconnects are handed out again. Results streamed by the
+ * runners are merged into one run of the results store, and the durations
+ * feed the history for the next plan. Runners without their own APPIUM_HOST
+ * are each given one address of coordinator.appium.hosts (e.g. a scaled
+ * compose service).
+ */
+public class WorkQueueCoordinator {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private final List<Shard> shards = new ArrayList<>();
+    private final Deque<Item> orphans = new ArrayDeque<>();
+    private final Map<Integer, Item> inFlight = new HashMap<>();
+    private final Map<String, RunnerStats> runners = new LinkedHashMap<>();
+    private final Map<String, long[]> durations = new HashMap<>();
+    private final Deque<String> appiumEndpoints = new ArrayDeque<>();
+    private String suiteName;
+    private int nextItemId;
+    private int totalItems;
+    private int completed;
+    private int connected;
+    private int failedTests;
+
+    // ======= PLANNING =======
+
+    private void plan(XmlSuite suite, int shardCount) {
+        suiteName = suite.getName();
+        for (DurationBalancer.Worker worker : DurationBalancer.plan(suite, shardCount)) {
+            Shard shard = new Shard("Shard " + (shards.size() + 1));
+            for (String className : worker.classOrder()) {
+                shard.items.addLast(new Item(++nextItemId, className,
+                        new ArrayList<>(worker.classes.get(className)), worker.classMillis(className),
+                        !DurationBalancer.hasDependencies(load(className))));
+            }
+            shards.add(shard);
+            totalItems += shard.items.size();
+            System.out.println(shard.name + ": " + shard.items.size() + " items, predicted "
+                    + Math.round(shard.remainingMillis() / 1000) + " s " + worker.classOrder());
+        }
+    }
+
+    private void resolveAppiumEndpoints() {
+        for (String entry : AppiumUtils.getProperty("coordinator.appium.hosts", "").split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.lastIndexOf(':');
+            String host = colon < 0 ? entry : entry.substring(0, colon);
+            String port = colon < 0 ? "4723" : entry.substring(colon + 1);
+            try {
+                // A scaled compose service resolves to one address per replica
+                for (InetAddress address : InetAddress.getAllByName(host)) {
+                    appiumEndpoints.add("http://" + address.getHostAddress() + ":" + port);
+                }
+            } catch (UnknownHostException e) {
+                System.out.println("Cannot resolve Appium host " + host + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** coordinator.runners, or with 0 one shard per Appium endpoint a runner can be given. */
+    private int shardCount() {
+        int runners = AppiumUtils.getIntProperty("coordinator.runners", 0);
+        if (runners > 0) {
+            return runners;
+        }
+        return appiumEndpoints.isEmpty() ? 2 : appiumEndpoints.size();
+    }
+
+    // ======= QUEUE =======
+
+    /** Register a runner and give it a shard (and an Appium endpoint if it has none). */
+    private Map<String, Object> hello(String runner, Object ownEndpoint) {
+        lock.lock();
+        try {
+            RunnerStats stats = runners.computeIfAbsent(runner, RunnerStats::new);
+            stats.shard = "none";
+            int items = 0;
+            for (Shard shard : shards) {
+                if (shard.owner == null) {
+                    shard.owner = runner;
+                    stats.shard = shard.name;
+                    items = shard.items.size();
+                    break;
+                }
+            }
+            stats.appium = ownEndpoint != null ? String.valueOf(ownEndpoint) : appiumEndpoints.pollFirst();
+            stats.pooledAppium = ownEndpoint == null && stats.appium != null;
+            connected++;
+            changed.signalAll();
+            Map<String, Object> welcome = new LinkedHashMap<>();
+            welcome.put("op", "welcome");
+            welcome.put("suite", suiteName);
+            welcome.put("shard", stats.shard);
+            welcome.put("items", items);
+            if (ownEndpoint == null && stats.appium != null) {
+                welcome.put("appium", stats.appium);
+            }
+            System.out.println("Runner " + runner + " joined (shard " + stats.shard
+                    + ", Appium " + (stats.appium == null ? "default" : stats.appium) + ")");
+            return welcome;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Next item for the runner: requeued work, then its own shard, then stolen work. */
+    private Map<String, Object> next(String runner) {
+        lock.lock();
+        try {
+            RunnerStats stats = runners.get(runner);
+            Item item = orphans.pollFirst();
+            if (item == null) {
+                Shard own = shardOf(runner);
+                item = own == null ? null : own.items.pollFirst();
+            }
+            if (item == null) {
+                item = steal(runner);
+                if (item != null) {
+                    stats.stolen++;
+                }
+            }
+            Map<String, Object> reply = new LinkedHashMap<>();
+            if (item != null) {
+                item.runner = runner;
+                inFlight.put(item.id, item);
+                stats.items++;
+                reply.put("op", "run");
+                reply.put("item", item.id);
+                reply.put("class", item.className);
+                reply.put("methods", item.methods);
+            } else {
+                // Work still running elsewhere may come back if its runner dies
+                reply.put("op", inFlight.isEmpty() ? "done" : "wait");
+            }
+            return reply;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Tail item of the shard with the most predicted work left, or half of it when it can be split. */
+    private Item steal(String thief) {
+        Shard victim = null;
+        for (Shard shard : shards) {
+            if (!thief.equals(shard.owner) && !shard.items.isEmpty()
+                    && (victim == null || shard.remainingMillis() > victim.remainingMillis())) {
+                victim = shard;
+            }
+        }
+        if (victim == null) {
+            return null;
+        }
+        Item tail = victim.items.peekLast();
+        if (tail.splittable && tail.methods.size() > 1 && victim.owner != null) {
+            List<String> half = new ArrayList<>(tail.methods.subList(tail.methods.size() / 2, tail.methods.size()));
+            tail.methods.subList(tail.methods.size() / 2, tail.methods.size()).clear();
+            double share = tail.estimateMillis * half.size() / (half.size() + tail.methods.size());
+            tail.estimateMillis -= share;
+            totalItems++;
+            Item stolen = new Item(++nextItemId, tail.className, half, share, true);
+            System.out.println("Stealing " + half.size() + " methods of " + tail.className + " from " + victim.name);
+            return stolen;
+        }
+        System.out.println("Stealing " + tail.className + " from " + victim.name);
+        return victim.items.pollLast();
+    }
+
+    /** Hold a result until its item completes, so a requeued item is not recorded twice. */
+    private void result(String runner, int itemId, Map<String, Object> record) {
+        lock.lock();
+        try {
+            Item item = inFlight.get(itemId);
+            if (item != null && runner.equals(item.runner)) {
+                record.put("runner", runner);
+                item.results.add(record);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(String runner, int itemId, long busyMillis) {
+        lock.lock();
+        try {
+            Item item = inFlight.remove(itemId);
+            if (item == null) {
+                return;
+            }
+            RunnerStats stats = runners.get(runner);
+            stats.busyMillis += busyMillis;
+            for (Map<String, Object> record : item.results) {
+                ResultStore.write(record);
+                stats.tests++;
+                if ("FAIL".equals(record.get("status"))) {
+                    stats.failed++;
+                    failedTests++;
+                }
+                if (!"SKIP".equals(record.get("status")) && record.get("ms") instanceof Number) {
+                    long[] total = durations.computeIfAbsent(String.valueOf(record.get("test")), t -> new long[2]);
+                    total[0] += ((Number) record.get("ms")).longValue();
+                    // A data-driven method is scheduled as one unit: sum its rows, count it once
+                    total[1] = record.containsKey("params") ? 1 : total[1] + 1;
+                }
+            }
+            item.results.clear();
+            completed++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The runner is gone: hand out its unfinished items again and free its shard and Appium endpoint. */
+    private void disconnected(String runner) {
+        lock.lock();
+        try {
+            connected--;
+            List<Item> lost = new ArrayList<>();
+            inFlight.values().removeIf(item -> runner.equals(item.runner) && lost.add(item));
+            for (Item item : lost) {
+                System.out.println("Runner " + runner + " left during " + item.className + ", requeueing it");
+                item.results.clear();
+                orphans.addFirst(item);
+            }
+            Shard shard = shardOf(runner);
+            if (shard != null) {
+                shard.owner = null;
+            }
+            RunnerStats stats = runners.get(runner);
+            if (stats != null && stats.pooledAppium) {
+                // Last in line: a replacement runner gets a server nobody has used yet, if there is one
+                appiumEndpoints.addLast(stats.appium);
+                stats.pooledAppium = false;
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Shard shardOf(String runner) {
+        for (Shard shard : shards) {
+            if (runner.equals(shard.owner)) {
+                return shard;
+            }
+        }
+        return null;
+    }
+
+    // ======= SERVER =======
+
+    private void serve(ServerSocket server) {
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    VirtualThreads.factory("coordinator-conn-").newThread(() -> handle(socket)).start();
+                } catch (IOException e) {
+                    if (!server.isClosed()) {
+                        System.out.println("Coordinator accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        }, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    private void handle(Socket socket) {
+        String runner = null;
+        try (WorkQueueConnection connection = new WorkQueueConnection(socket)) {
+            Map<String, Object> message;
+            while ((message = connection.receive()) != null) {
+                String op = String.valueOf(message.get("op"));
+                if ("hello".equals(op)) {
+                    runner = String.valueOf(message.get("runner"));
+                    connection.send(hello(runner, message.get("appium")));
+                } else if (runner == null) {
+                    throw new IOException("Expected hello from " + connection.remoteAddress() + ", got " + op);
+                } else if ("next".equals(op)) {
+                    connection.send(next(runner));
+                } else if ("result".equals(op)) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> record = (Map<String, Object>) message.get("record");
+                    result(runner, ((Number) message.get("item")).intValue(), new LinkedHashMap<>(record));
+                } else if ("complete".equals(op)) {
+                    complete(runner, ((Number) message.get("item")).intValue(),
+                            ((Number) message.get("ms")).longValue());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Runner " + (runner == null ? socket.getRemoteSocketAddress() : runner)
+                    + " connection failed: " + e.getMessage());
+        } finally {
+            if (runner != null) {
+                disconnected(runner);
+            }
+        }
+    }
+
+    /** Block until every item is complete, or no runner has been connected for the timeout. */
+    private boolean awaitCompletion(long idleTimeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long idleSince = System.currentTimeMillis();
+            while (completed < totalItems) {
+                if (connected > 0) {
+                    idleSince = System.currentTimeMillis();
+                } else if (System.currentTimeMillis() - idleSince > idleTimeoutMillis) {
+                    return false;
+                }
+                changed.await(1, TimeUnit.SECONDS);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Give runners a moment to hear "done" and disconnect before the socket closes. */
+    private void awaitDisconnect(long timeoutMillis) throws InterruptedException {
+        lock.lock();
+        try {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            while (connected > 0 && System.currentTimeMillis() < deadline) {
+                changed.await(200, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ======= REPORTING =======
+
+    /** Rows (runner, shard, appium, items, stolen, tests, failed, busy ms) for the summary. */
+    private String[][] toTable() {
+        String[][] rows = new String[runners.size() + 1][];
+        rows[0] = new String[]{"runner", "shard", "appium", "items", "stolen", "tests", "failed", "busy ms"};
+        int i = 1;
+        for (RunnerStats stats : runners.values()) {
+            rows[i++] = new String[]{stats.name, stats.shard, stats.appium == null ? "default" : stats.appium,
+                    String.valueOf(stats.items), String.valueOf(stats.stolen), String.valueOf(stats.tests),
+                    String.valueOf(stats.failed), String.valueOf(stats.busyMillis)};
+        }
+        return rows;
+    }
+
+    private void saveDurations() {
+        DurationHistory history = DurationHistory.load(DurationBalancer.historyFile(), 0.5);
+        durations.forEach((test, total) -> history.record(test, (double) total[0] / total[1]));
+        history.save();
+    }
+
+    /**
+     * WorkQueueCoordinator [testng.xml]: serve the suite's methods on
+     * coordinator.port until every item has run; exits 1 if a test failed or
+     * runners stopped showing up.
+     */
+    public static void main(String[] args) throws Exception {
+        String suiteFile = args.length > 0 ? args[0] : "testng.xml";
+        List<XmlSuite> suites = new ArrayList<>(new Parser(suiteFile).parseToList());
+        new ChangeBasedSelector().alter(suites);
+        XmlSuite suite = suites.get(0);
+
+        WorkQueueCoordinator coordinator = new WorkQueueCoordinator();
+        coordinator.resolveAppiumEndpoints();
+        coordinator.plan(suite, coordinator.shardCount());
+        if (coordinator.totalItems == 0) {
+            System.out.println("Nothing to run");
+            return;
+        }
+
+        int port = AppiumUtils.getIntProperty("coordinator.port", 7070);
+        boolean ok;
+        try (ServerSocket server = new ServerSocket()) {
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(port));
+            System.out.println("Coordinator serving " + coordinator.totalItems + " items on port "
+                    + server.getLocalPort());
+            if (ResultStore.isEnabled()) {
+                ResultStore.begin(suite.getName());
+            }
+            coordinator.serve(server);
+            ok = coordinator.awaitCompletion(
+                    TimeUnit.SECONDS.toMillis(AppiumUtils.getIntProperty("coordinator.wait.timeout", 600)));
+            coordinator.awaitDisconnect(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        Path run = ResultStore.finish();
+        coordinator.saveDurations();
+        System.out.println(ok ? "All " + coordinator.totalItems + " items completed"
+                : "Gave up: no runner connected for coordinator.wait.timeout seconds");
+        for (String[] row : coordinator.toTable()) {
+            System.out.println(String.format("%-28s %-9s %-26s %-6s %-7s %-6s %-7s %s", (Object[]) row));
+        }
+        if (run != null) {
+            ResultHistory.scan(run.getParent(), 1, null).writeHtml(Paths.get("test-output", "results-report.html"));
+        }
+        System.exit(ok && coordinator.failedTests == 0 ? 0 : 1);
+    }
+
+    private static Class<?> load(String className) {
+        try {
+            return Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Cannot load test class " + className + ": " + e.getMessage());
+        }
+    }
+
+    // ======= MODEL =======
+
+    /** Methods of one class to run in one class instance on one runner. */
+    private static final class Item {
+        final int id;
+        final String className;
+        final List<String> methods;
+        final boolean splittable;
+        final List<Map<String, Object>> results = new ArrayList<>();
+        double estimateMillis;
+        String runner;
+
+        Item(int id, String className, List<String> methods, double estimateMillis, boolean splittable) {
+            this.id = id;
+            this.className = className;
+            this.methods = methods;
+            this.estimateMillis = estimateMillis;
+            this.splittable = splittable;
+        }
+    }
+
+    private static final class Shard {
+        final String name;
+        final Deque<Item> items = new ArrayDeque<>();
+        String owner;
+
+        Shard(String name) {
+            this.name = name;
+        }
+
+        double remainingMillis() {
+            double total = 0;
+            for (Item item : items) {
+                total += item.estimateMillis;
+            }
+            return total;
+        }
+    }
+
+    private static final class RunnerStats {
+        final String name;
+        String shard;
+        String appium;
+        // Handed out from coordinator.appium.hosts, so returned when the runner leaves
+        boolean pooledAppium;
+        int items;
+        int stolen;
+        int tests;
+        int failed;
+        long busyMillis;
+
+        RunnerStats(String name) {
+            this.name = name;
+        }
+    }
+}
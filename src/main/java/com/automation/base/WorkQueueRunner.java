@@ -0,0 +1,250 @@
+package com.automation.base;
+
+import com.automation.stub.StubAppiumServer;
+import com.automation.utils.AppiumUtils;
+import com.automation.utils.FailureArtifacts;
+import com.automation.utils.ResultStore;
+import com.automation.utils.TraceListener;
+import com.automation.utils.Tracer;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.TestNG;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runner JVM / container of a sharded run: pulls items from a
+ * {@link WorkQueueCoordinator} until the queue is drained and streams every
+ * result back to it.
+ *
+ * Each healthy device gets a worker thread that asks for the next item and
+ * runs it as a one-class TestNG suite, so the runner keeps its session pool
+ * and installed app across items. Tests talk to the runner's own Appium
+ * server (APPIUM_HOST / APPIUM_PORT, or the stub) or, when it has none, to
+ * the endpoint the coordinator hands out.
+ */
+public class WorkQueueRunner {
+
+    private static volatile boolean active;
+
+    private WorkQueueRunner() {
+    }
+
+    /** Whether this JVM is a shard runner (reports are then merged by the coordinator). */
+    public static boolean isActive() {
+        return active;
+    }
+
+    /**
+     * WorkQueueRunner [host:port]: the coordinator address defaults to the
+     * COORDINATOR environment variable, then coordinator.address.
+     */
+    public static void main(String[] args) {
+        String address = args.length > 0 ? args[0] : System.getenv("COORDINATOR");
+        if (address == null || address.trim().isEmpty()) {
+            address = AppiumUtils.getProperty("coordinator.address", "");
+        }
+        if (address.trim().isEmpty()) {
+            throw new IllegalArgumentException("No coordinator address: pass host:port, set COORDINATOR "
+                    + "or coordinator.address");
+        }
+        active = true;
+        pullWork(address.trim());
+        // Like TestNG's command line: the stub and HTTP client threads would keep the JVM alive
+        System.exit(0);
+    }
+
+    private static void pullWork(String address) {
+        String runner = hostName() + "-" + ProcessHandle.current().pid();
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(AppiumUtils.getIntProperty("coordinator.wait.timeout", 600));
+
+        try (WorkQueueConnection connection = WorkQueueConnection.connect(address, timeoutMillis)) {
+            Map<String, Object> hello = new LinkedHashMap<>();
+            hello.put("op", "hello");
+            hello.put("runner", runner);
+            hello.put("appium", ownAppiumUrl());
+            Map<String, Object> welcome = connection.request(hello);
+            if (welcome.get("appium") != null) {
+                System.setProperty("devices", AppiumUtils.getProperty("device.name") + "@" + welcome.get("appium"));
+            }
+            System.out.println("Runner " + runner + " connected to " + connection.remoteAddress() + " ("
+                    + welcome.get("shard") + ", " + welcome.get("items") + " items)");
+
+            List<Device> devices = DeviceRegistry.getHealthyDevices();
+            if (devices.isEmpty()) {
+                System.out.println("Runner " + runner + " has no healthy device, leaving the work to others");
+                return;
+            }
+            SessionPool.prewarm(devices, ((Number) welcome.get("items")).intValue());
+
+            String suiteName = String.valueOf(welcome.get("suite"));
+            AtomicInteger items = new AtomicInteger();
+            List<Thread> workers = new ArrayList<>();
+            for (Device device : devices) {
+                Thread worker = new Thread(() -> work(connection, suiteName, items), "worker-" + device.getUdid());
+                worker.start();
+                workers.add(worker);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            System.out.println("Runner " + runner + " finished after " + items.get() + " items");
+        } catch (IOException e) {
+            System.out.println("Runner " + runner + " lost the coordinator: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (Tracer.isEnabled()) {
+                Tracer.export(Paths.get("test-output", "runners", runner));
+            }
+            SessionPool.shutdown();
+        }
+    }
+
+    /** Pull and run items until the coordinator says the queue is drained. */
+    private static void work(WorkQueueConnection connection, String suiteName, AtomicInteger items) {
+        Map<String, Object> next = new LinkedHashMap<>();
+        next.put("op", "next");
+        try {
+            while (true) {
+                Map<String, Object> reply = connection.request(next);
+                String op = String.valueOf(reply.get("op"));
+                if ("wait".equals(op)) {
+                    // Items still running elsewhere come back if their runner dies
+                    WorkQueueConnection.sleep(500);
+                    continue;
+                }
+                if (!"run".equals(op)) {
+                    return;
+                }
+                long start = System.currentTimeMillis();
+                @SuppressWarnings("unchecked")
+                List<String> methods = (List<String>) reply.get("methods");
+                try {
+                    run(connection, suiteName, reply.get("item"), String.valueOf(reply.get("class")), methods);
+                } finally {
+                    Map<String, Object> complete = new LinkedHashMap<>();
+                    complete.put("op", "complete");
+                    complete.put("item", reply.get("item"));
+                    complete.put("ms", System.currentTimeMillis() - start);
+                    connection.send(complete);
+                    items.incrementAndGet();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println(Thread.currentThread().getName() + " lost the coordinator: " + e.getMessage());
+        }
+    }
+
+    /** Run the methods of one class as a suite of their own, forwarding each result. */
+    private static void run(WorkQueueConnection connection, String suiteName, Object item, String className,
+                            List<String> methods) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(suiteName);
+        XmlTest test = new XmlTest(suite);
+        test.setName(className.substring(className.lastIndexOf('.') + 1));
+        XmlClass xmlClass = new XmlClass(className, false);
+        List<XmlInclude> includes = new ArrayList<>();
+        for (String method : methods) {
+            includes.add(new XmlInclude(method));
+        }
+        xmlClass.setIncludedMethods(includes);
+        test.setXmlClasses(Collections.singletonList(xmlClass));
+
+        TestNG testng = new TestNG(false);
+        testng.setVerbose(0);
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.addListener(new TraceListener());
+        testng.addListener(new ResultForwarder(connection, item));
+        testng.run();
+    }
+
+    /** The runner's own Appium server, or null to be given one by the coordinator. */
+    private static String ownAppiumUrl() {
+        String host = System.getenv("APPIUM_HOST");
+        boolean own = StubAppiumServer.isEnabled() || (host != null && !host.trim().isEmpty())
+                || !AppiumUtils.getProperty("devices", "").trim().isEmpty();
+        return own ? DriverFactory.resolveAppiumUrl() : null;
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        if (host != null && !host.isEmpty()) {
+            return host;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "runner";
+        }
+    }
+
+    /** Sends each finished test to the coordinator as a results-store record. */
+    private static final class ResultForwarder implements ITestListener {
+
+        private final WorkQueueConnection connection;
+        private final Object item;
+
+        ResultForwarder(WorkQueueConnection connection, Object item) {
+            this.connection = connection;
+            this.item = item;
+        }
+
+        @Override
+        public void onTestSuccess(ITestResult result) {
+            forward(result, ResultStore.toRecord(result, "PASS"));
+        }
+
+        /** The coordinator only gets the record, so artifacts go to the shared test-output and are linked from it. */
+        @Override
+        public void onTestFailure(ITestResult result) {
+            Map<String, Object> record = ResultStore.toRecord(result, "FAIL");
+            if (result.getInstance() instanceof BaseTest) {
+                try {
+                    Map<String, String> files = FailureArtifacts.captureFiles(
+                            ((BaseTest) result.getInstance()).getDriver()).get(60, TimeUnit.SECONDS);
+                    if (!files.isEmpty()) {
+                        record.put("artifacts", files);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException | TimeoutException e) {
+                    System.out.println("Cannot store failure artifacts of " + result.getName() + ": " + e.getMessage());
+                }
+            }
+            forward(result, record);
+        }
+
+        @Override
+        public void onTestSkipped(ITestResult result) {
+            forward(result, ResultStore.toRecord(result, "SKIP"));
+        }
+
+        private void forward(ITestResult result, Map<String, Object> record) {
+            Map<String, Object> message = new LinkedHashMap<>();
+            message.put("op", "result");
+            message.put("item", item);
+            message.put("record", record);
+            try {
+                connection.send(message);
+            } catch (IOException e) {
+                System.out.println("Cannot forward " + result.getName() + " to the coordinator: " + e.getMessage());
+            }
+        }
+    }
+}
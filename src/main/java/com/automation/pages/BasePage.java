@@ -0,0 +1,47 @@
+package com.automation.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.utils.AppiumUtils;
+
+/**
+ * Common base for all page objects.
+ * Element proxies never wait on their own, so all waiting goes through
+ * {@link WaitEngine} and is never stacked. With snapshot mode on, read-only
+ * element queries are answered from a shared {@link PageSnapshot}.
+ * Prefer {@link Pages#get} over the constructors to reuse instances per session.
+ */
+public abstract class BasePage {
+
+    protected final AndroidDriver driver;
+    protected final WaitEngine waits;
+
+    private boolean snapshotMode = defaultSnapshotMode();
+
+    protected BasePage(AndroidDriver driver) {
+        this.driver = driver;
+        this.waits = new WaitEngine(driver);
+        // A new page means a new step: never trust a snapshot from before it
+        PageSnapshot.invalidate(driver);
+        ElementCache.invalidate(driver);
+        PageMetadata.of(PageMethodTimer.declaredClass(getClass())).bind(this);
+    }
+
+    /** Whether read-only queries on this page are answered from the page snapshot. */
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+
+    /** Turn snapshot mode on or off for this page instance. */
+    public void setSnapshotMode(boolean snapshotMode) {
+        this.snapshotMode = snapshotMode;
+    }
+
+    /** Back to the configured snapshot mode, so a reused page does not inherit an earlier test's switch. */
+    void resetSnapshotMode() {
+        this.snapshotMode = defaultSnapshotMode();
+    }
+
+    private static boolean defaultSnapshotMode() {
+        return AppiumUtils.getBooleanProperty("page.snapshot.enabled", false);
+    }
+}
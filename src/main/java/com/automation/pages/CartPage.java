@@ -2,21 +2,14 @@ package com.automation.pages;
 
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import java.time.Duration;
 
 /**
  * Page Object for the Cart screen of SauceLabs My Demo App.
  * Handles cart items, checkout flow, and cart-related assertions.
  */
-public class CartPage {
-
-    private AndroidDriver driver;
-    private WebDriverWait wait;
+@Screen(marker = "cartTitle", deepLink = "mydemoapprn://cart")
+public class CartPage extends BasePage {
 
     // ======= ELEMENT LOCATORS (SauceLabs My Demo App) =======
 
@@ -40,65 +33,57 @@ public class CartPage {
 
     // ======= CONSTRUCTOR =======
     public CartPage(AndroidDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        super(driver);
     }
 
     // ======= PAGE ACTIONS =======
 
     /** Check if the cart screen is displayed. */
     public boolean isCartPageDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOf(cartTitle));
-            return cartTitle.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return waits.expectPresent(cartTitle);
     }
 
     /** Get the cart title text. */
     public String getCartTitle() {
-        wait.until(ExpectedConditions.visibilityOf(cartTitle));
+        waits.waitForVisible(cartTitle);
         return cartTitle.getText();
     }
 
     /** Click the Proceed To Checkout button. */
     public void clickCheckout() {
-        checkoutButton.click();
+        waits.waitForVisible(checkoutButton).click();
     }
 
     /** Remove an item from the cart. */
     public void removeItem() {
-        removeItemButton.click();
+        waits.waitForVisible(removeItemButton).click();
     }
 
     /** Check if the cart is empty (no items text shown). */
     public boolean isCartEmpty() {
-        try {
-            wait.until(ExpectedConditions.visibilityOf(noItemsText));
-            return noItemsText.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return waits.probe(noItemsText);
+    }
+
+    /**
+     * Check that the cart holds items, for carts expected to be filled: returns
+     * as soon as the no items text is absent, waits wait.absent when it is empty.
+     */
+    public boolean expectNotEmpty() {
+        return waits.expectAbsent(noItemsText);
     }
 
     /** Get the total price displayed in cart. */
     public String getTotalPrice() {
-        return totalPrice.getText();
+        return waits.waitForVisible(totalPrice).getText();
     }
 
     /** Navigate back from the cart. */
     public void clickBack() {
-        backButton.click();
+        waits.waitForVisible(backButton).click();
     }
 
     /** Check if checkout button is displayed (means items exist). */
     public boolean isCheckoutButtonDisplayed() {
-        try {
-            return checkoutButton.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return waits.probe(checkoutButton);
     }
 }
@@ -0,0 +1,227 @@
+package com.automation.pages;
+
+import com.automation.utils.AppiumUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolved element handles of the current screen, per driver session.
+ *
+ * Page fields look an element up once and keep its id until the screen
+ * changes: a click or submit, a navigation or app reset, or a new page object
+ * drops every handle, while typing only drops cached lists (a validation
+ * message may have appeared). A handle that went stale in between is found
+ * again transparently, once. Elements handed out from a cached list are
+ * wrapped so acting on them also ends the screen. Empty lists are never
+ * cached, so waits for elements to appear always query the device.
+ * Disable with element.cache.enabled=false.
+ */
+public final class ElementCache {
+
+    private static final Map<WebDriver, ElementCache> caches =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder staleRefinds = new LongAdder();
+
+    private static final boolean ENABLED = AppiumUtils.getBooleanProperty("element.cache.enabled", true);
+
+    private final Map<By, WebElement> elements = new ConcurrentHashMap<>();
+    private final Map<By, List<WebElement>> lists = new ConcurrentHashMap<>();
+
+    private ElementCache() {
+    }
+
+    // ======= LOOKUPS =======
+
+    /** The element for the locator, from the cache when the screen has not changed. */
+    static WebElement find(WebDriver driver, By by) {
+        if (!ENABLED) {
+            return driver.findElement(by);
+        }
+        ElementCache cache = of(driver);
+        WebElement element = cache.elements.get(by);
+        if (element != null) {
+            hits.increment();
+            return element;
+        }
+        misses.increment();
+        element = driver.findElement(by);
+        cache.elements.put(by, element);
+        return element;
+    }
+
+    /** Elements for the locator; non-empty results are cached and wrapped. */
+    static List<WebElement> findAll(WebDriver driver, By by) {
+        if (!ENABLED) {
+            return driver.findElements(by);
+        }
+        ElementCache cache = of(driver);
+        List<WebElement> list = cache.lists.get(by);
+        if (list != null) {
+            hits.increment();
+            return list;
+        }
+        misses.increment();
+        List<WebElement> found = driver.findElements(by);
+        if (found.isEmpty()) {
+            return found;
+        }
+        List<WebElement> wrapped = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            wrapped.add((WebElement) Proxy.newProxyInstance(ElementCache.class.getClassLoader(),
+                    new Class<?>[]{WebElement.class, WrapsElement.class},
+                    new ListItemHandler(driver, by, i, found.get(i))));
+        }
+        list = Collections.unmodifiableList(wrapped);
+        cache.lists.put(by, list);
+        return list;
+    }
+
+    /** Forget a handle that turned out to be stale; the next lookup re-finds it. */
+    static void evict(WebDriver driver, By by) {
+        staleRefinds.increment();
+        ElementCache cache = caches.get(driver);
+        if (cache != null) {
+            cache.elements.remove(by);
+            cache.lists.remove(by);
+        }
+    }
+
+    // ======= INVALIDATION =======
+
+    /** The screen changed: drop every handle of the session. */
+    public static void invalidate(WebDriver driver) {
+        caches.remove(driver);
+    }
+
+    /** The screen's content may have changed (e.g. after typing): drop cached lists only. */
+    static void invalidateLists(WebDriver driver) {
+        ElementCache cache = caches.get(driver);
+        if (cache != null) {
+            cache.lists.clear();
+        }
+    }
+
+    /** Invalidate after an element action: clicks and submits navigate, typing only changes content. */
+    static void afterAction(WebDriver driver, String methodName) {
+        if ("click".equals(methodName) || "submit".equals(methodName)) {
+            invalidate(driver);
+        } else {
+            invalidateLists(driver);
+        }
+    }
+
+    // ======= COUNTERS =======
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long hits() {
+        return hits.sum();
+    }
+
+    public static long misses() {
+        return misses.sum();
+    }
+
+    /** Cached handles that were stale when used and had to be found again. */
+    public static long staleRefinds() {
+        return staleRefinds.sum();
+    }
+
+    /** Rows (counter, value) for the report. */
+    public static String[][] toTable() {
+        long lookups = hits() + misses();
+        return new String[][]{
+                {"counter", "value"},
+                {"hits", String.valueOf(hits())},
+                {"misses", String.valueOf(misses())},
+                {"stale re-finds", String.valueOf(staleRefinds())},
+                {"hit rate", lookups == 0 ? "-" : String.format("%.1f%%", 100.0 * hits() / lookups)}
+        };
+    }
+
+    private static ElementCache of(WebDriver driver) {
+        synchronized (caches) {
+            return caches.computeIfAbsent(driver, d -> new ElementCache());
+        }
+    }
+
+    /**
+     * An element of a cached list. Acting on it ends the screen; if it went
+     * stale, the list is found again and the call retried on the same index.
+     */
+    private static final class ListItemHandler implements InvocationHandler {
+
+        private final WebDriver driver;
+        private final By by;
+        private final int index;
+        private WebElement element;
+
+        private ListItemHandler(WebDriver driver, By by, int index, WebElement element) {
+            this.driver = driver;
+            this.by = by;
+            this.index = index;
+            this.element = element;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getWrappedElement".equals(name) && method.getDeclaringClass().equals(WrapsElement.class)) {
+                return element;
+            }
+            if ("toString".equals(name)) {
+                return "Cached element " + index + " of: " + by;
+            }
+            if ("hashCode".equals(name) && args == null) {
+                return System.identityHashCode(proxy);
+            }
+            if ("equals".equals(name) && args != null && args.length == 1) {
+                return proxy == args[0];
+            }
+            try {
+                return invokeOn(element, method, args);
+            } catch (StaleElementReferenceException e) {
+                evict(driver, by);
+                List<WebElement> fresh = driver.findElements(by);
+                if (index >= fresh.size()) {
+                    throw e;
+                }
+                element = fresh.get(index);
+                return invokeOn(element, method, args);
+            } finally {
+                if (ElementHandler.isAction(name)) {
+                    PageSnapshot.invalidate(driver);
+                    afterAction(driver, name);
+                }
+            }
+        }
+
+        private static Object invokeOn(WebElement element, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(element, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.automation.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Backs a single-element page field: uses the element handle cached for the
+ * current screen (see {@link ElementCache}), re-finding it once if it went
+ * stale, or answers isDisplayed/getText from the session snapshot in snapshot
+ * mode. Calls that can change the screen drop the snapshot and the cache.
+ */
+class ElementHandler implements InvocationHandler {
+
+    private final BasePage page;
+    private final By by;
+
+    ElementHandler(BasePage page, By by) {
+        this.page = page;
+        this.by = by;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ("toString".equals(name)) {
+            return "Proxy element for: " + by;
+        }
+        if ("hashCode".equals(name)) {
+            return System.identityHashCode(proxy);
+        }
+        if ("equals".equals(name)) {
+            return proxy == args[0];
+        }
+
+        if (page.isSnapshotMode() && ("isDisplayed".equals(name) || "getText".equals(name))
+                && PageSnapshot.supports(by)) {
+            PageSnapshot snapshot = PageSnapshot.of(page.driver);
+            int node = snapshot.find(by);
+            if (node < 0) {
+                throw new NoSuchElementException("Element not in page snapshot: " + by);
+            }
+            return "isDisplayed".equals(name) ? snapshot.isDisplayed(node) : snapshot.getText(node);
+        }
+
+        WebElement element = ElementCache.find(page.driver, by);
+        if ("getWrappedElement".equals(name) && method.getDeclaringClass().equals(WrapsElement.class)) {
+            return element;
+        }
+        try {
+            return invokeOn(element, method, args);
+        } catch (StaleElementReferenceException e) {
+            // The cached handle outlived its view: find it again and retry once
+            ElementCache.evict(page.driver, by);
+            return invokeOn(ElementCache.find(page.driver, by), method, args);
+        } finally {
+            if (isAction(name)) {
+                PageSnapshot.invalidate(page.driver);
+                ElementCache.afterAction(page.driver, name);
+            }
+        }
+    }
+
+    private static Object invokeOn(WebElement element, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(element, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    static boolean isAction(String methodName) {
+        return "click".equals(methodName) || "sendKeys".equals(methodName)
+                || "clear".equals(methodName) || "submit".equals(methodName);
+    }
+}
@@ -0,0 +1,57 @@
+package com.automation.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Backs a {@code List<WebElement>} page field. In snapshot mode size() and
+ * isEmpty() are counted locally; otherwise the list comes from the
+ * {@link ElementCache}, so size() followed by get(i) costs one lookup. Any
+ * access other than size() and isEmpty() drops the snapshot, since the caller
+ * may act on the elements.
+ */
+class ElementListHandler implements InvocationHandler {
+
+    private final BasePage page;
+    private final By by;
+
+    ElementListHandler(BasePage page, By by) {
+        this.page = page;
+        this.by = by;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if ("toString".equals(name)) {
+            return "Proxy element list for: " + by;
+        }
+        if ("hashCode".equals(name) && args == null) {
+            return System.identityHashCode(proxy);
+        }
+        if ("equals".equals(name) && args != null && args.length == 1 && args[0] == proxy) {
+            return true;
+        }
+
+        if (page.isSnapshotMode() && PageSnapshot.supports(by)
+                && ("size".equals(name) || "isEmpty".equals(name))) {
+            int count = PageSnapshot.of(page.driver).count(by);
+            return "size".equals(name) ? (Object) count : (Object) (count == 0);
+        }
+
+        List<WebElement> elements = ElementCache.findAll(page.driver, by);
+        if (!"size".equals(name) && !"isEmpty".equals(name)) {
+            PageSnapshot.invalidate(page.driver);
+        }
+        try {
+            return method.invoke(elements, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
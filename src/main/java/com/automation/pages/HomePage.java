@@ -2,23 +2,16 @@ package com.automation.pages;
 
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
-import java.time.Duration;
 import java.util.List;
 
 /**
  * Page Object for the Product Catalog (Home) screen of SauceLabs My Demo App.
  * This is the main landing page that displays the product listing.
  */
-public class HomePage {
-
-    private AndroidDriver driver;
-    private WebDriverWait wait;
+@Screen(marker = "productsTitle", deepLink = "mydemoapprn://store-overview")
+public class HomePage extends BasePage {
 
     // ======= ELEMENT LOCATORS (SauceLabs My Demo App) =======
 
@@ -31,6 +24,9 @@ public class HomePage {
     @AndroidFindBy(accessibility = "cart badge")
     private WebElement cartBadge;
 
+    @AndroidFindBy(xpath = "//android.view.ViewGroup[@content-desc='cart badge']/android.widget.TextView")
+    private List<WebElement> cartBadgeCount;
+
     @AndroidFindBy(accessibility = "sort button")
     private WebElement sortButton;
 
@@ -48,63 +44,69 @@ public class HomePage {
 
     // ======= CONSTRUCTOR =======
     public HomePage(AndroidDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        super(driver);
     }
 
     // ======= PAGE ACTIONS =======
 
     /** Check if the Products title is displayed (confirms we're on home page). */
     public boolean isHomePageDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOf(productsTitle));
-            return productsTitle.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return waits.expectPresent(productsTitle);
     }
 
     /** Get the title text shown on the home page. */
     public String getHomeTitleText() {
-        wait.until(ExpectedConditions.visibilityOf(productsTitle));
+        waits.waitForVisible(productsTitle);
         return productsTitle.getText();
     }
 
     /** Open the side navigation menu. */
     public void openMenu() {
-        menuButton.click();
+        waits.waitForVisible(menuButton).click();
     }
 
     /** Navigate to login screen via the menu. */
     public void navigateToLogin() {
         openMenu();
-        wait.until(ExpectedConditions.visibilityOf(menuLoginOption));
+        waits.waitForVisible(menuLoginOption);
         menuLoginOption.click();
     }
 
     /** Perform logout via the menu. */
     public void logout() {
         openMenu();
-        wait.until(ExpectedConditions.visibilityOf(menuLogoutOption));
+        waits.waitForVisible(menuLogoutOption);
         menuLogoutOption.click();
     }
 
+    /** Check the menu for a Log Out option, then close it by going to the catalog. */
+    public boolean isLoggedIn() {
+        openMenu();
+        boolean loggedIn = waits.probe(menuLogoutOption);
+        waits.waitForVisible(menuCatalogOption).click();
+        return loggedIn;
+    }
+
+    /** Whether the cart badge shows an item count; a single lookup, no waiting. */
+    public boolean hasCartItems() {
+        return !cartBadgeCount.isEmpty();
+    }
+
     /** Navigate to catalog via the menu. */
     public void navigateToCatalog() {
         openMenu();
-        wait.until(ExpectedConditions.visibilityOf(menuCatalogOption));
+        waits.waitForVisible(menuCatalogOption);
         menuCatalogOption.click();
     }
 
     /** Click the cart icon/badge. */
     public void clickCart() {
-        cartBadge.click();
+        waits.waitForVisible(cartBadge).click();
     }
 
     /** Click the sort button to open sorting options. */
     public void clickSortButton() {
-        sortButton.click();
+        waits.waitForVisible(sortButton).click();
     }
 
     /** Get the count of product items visible on screen. */
@@ -114,6 +116,7 @@ public class HomePage {
 
     /** Click on a product by its index in the list. */
     public void clickProductAtIndex(int index) {
+        waits.expectAny(productItems);
         if (index >= 0 && index < productItems.size()) {
             productItems.get(index).click();
         }
@@ -121,10 +124,6 @@ public class HomePage {
 
     /** Check if products are loaded on the page. */
     public boolean areProductsDisplayed() {
-        try {
-            return productItems.size() > 0;
-        } catch (Exception e) {
-            return false;
-        }
+        return waits.expectAny(productItems);
     }
 }
@@ -0,0 +1,62 @@
+package com.automation.pages;
+
+import io.appium.java_client.AppiumBy;
+import com.automation.utils.AppiumUtils;
+import org.openqa.selenium.By;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles XPath locators into native lookups.
+ *
+ * UiAutomator2 resolves XPath by dumping and walking the whole hierarchy,
+ * while accessibility ids and UiSelector chains are resolved natively. The
+ * common XPath shapes used by our {@code @AndroidFindBy} fields are rewritten:
+ * //*[@content-desc='x'] becomes an accessibility id, and //class[...] with
+ * text / content-desc / resource-id predicates becomes an -android uiautomator
+ * selector. Anything else stays XPath and is logged once.
+ */
+public class LocatorCompiler {
+
+    private static final Set<String> untranslated = ConcurrentHashMap.newKeySet();
+
+    private LocatorCompiler() {
+    }
+
+    /** Native equivalent of the locator, or the locator itself if it cannot be translated. */
+    public static By compile(By by) {
+        if (!AppiumUtils.getBooleanProperty("locator.compile.enabled", true)
+                || !(by instanceof By.Remotable)) {
+            return by;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+        if (!"xpath".equals(parameters.using())) {
+            return by;
+        }
+
+        String xpath = String.valueOf(parameters.value());
+        NodeQuery query = NodeQuery.fromXPath(xpath);
+        if (query != null) {
+            String accessibilityId = query.accessibilityId();
+            if (accessibilityId != null) {
+                return AppiumBy.accessibilityId(accessibilityId);
+            }
+            String selector = query.toUiSelector();
+            if (selector != null) {
+                return AppiumBy.androidUIAutomator(selector);
+            }
+        }
+
+        if (untranslated.add(xpath)) {
+            System.out.println("Locator could not be translated, falling back to XPath: " + xpath);
+        }
+        return by;
+    }
+
+    /** XPath locators that had to stay XPath during this run. */
+    public static Set<String> getUntranslated() {
+        return Collections.unmodifiableSet(untranslated);
+    }
+}
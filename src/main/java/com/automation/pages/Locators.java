@@ -0,0 +1,37 @@
+package com.automation.pages;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+
+/**
+ * Turns {@code @AndroidFindBy} annotations into Selenium locators.
+ */
+public class Locators {
+
+    private Locators() {
+    }
+
+    /** Locator described by the annotation; the first non-empty strategy wins. */
+    public static By fromAnnotation(AndroidFindBy findBy) {
+        if (!findBy.accessibility().isEmpty()) {
+            return AppiumBy.accessibilityId(findBy.accessibility());
+        }
+        if (!findBy.id().isEmpty()) {
+            return AppiumBy.id(findBy.id());
+        }
+        if (!findBy.uiAutomator().isEmpty()) {
+            return AppiumBy.androidUIAutomator(findBy.uiAutomator());
+        }
+        if (!findBy.className().isEmpty()) {
+            return AppiumBy.className(findBy.className());
+        }
+        if (!findBy.xpath().isEmpty()) {
+            return AppiumBy.xpath(findBy.xpath());
+        }
+        if (!findBy.tagName().isEmpty()) {
+            return AppiumBy.tagName(findBy.tagName());
+        }
+        throw new IllegalArgumentException("@AndroidFindBy without a supported locator strategy");
+    }
+}
@@ -0,0 +1,259 @@
+package com.automation.pages;
+
+import com.automation.utils.AppiumUtils;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Navigation graph over the app's screens.
+ *
+ * Screens are the {@link Screen}-annotated page classes; transitions are the
+ * tap sequences the page objects already offer, plus a deep link into every
+ * screen that declares one. {@link #navigateTo} detects the current screen
+ * from a single page-source snapshot, does nothing if it is already the
+ * target, and otherwise follows the cheapest route. Edge costs start as
+ * estimates and are replaced by the observed average once an edge is used.
+ */
+public class Navigator {
+
+    private static final List<Transition> transitions = new CopyOnWriteArrayList<>();
+    private static final List<Class<? extends BasePage>> screens = new CopyOnWriteArrayList<>();
+
+    private static final long TAP_ESTIMATE_MILLIS = 1_000;
+    private static final long DEEP_LINK_ESTIMATE_MILLIS = 1_500;
+
+    static {
+        registerScreen(HomePage.class);
+        registerScreen(LoginPage.class);
+        registerScreen(ProductPage.class);
+        registerScreen(CartPage.class);
+
+        register(HomePage.class, LoginPage.class, 2, d -> Pages.get(d, HomePage.class).navigateToLogin());
+        register(HomePage.class, ProductPage.class, 1, d -> Pages.get(d, HomePage.class).clickProductAtIndex(0));
+        register(HomePage.class, CartPage.class, 1, d -> Pages.get(d, HomePage.class).clickCart());
+        register(ProductPage.class, CartPage.class, 1, d -> Pages.get(d, ProductPage.class).goToCart());
+        register(ProductPage.class, HomePage.class, 1, d -> Pages.get(d, ProductPage.class).clickBack());
+        register(LoginPage.class, HomePage.class, 2, d -> Pages.get(d, HomePage.class).navigateToCatalog());
+        register(CartPage.class, HomePage.class, 2, d -> Pages.get(d, HomePage.class).navigateToCatalog());
+    }
+
+    private final AndroidDriver driver;
+
+    public Navigator(AndroidDriver driver) {
+        this.driver = driver;
+    }
+
+    // ======= REGISTRATION =======
+
+    /** Add a screen to the graph; its class must carry {@link Screen}. */
+    public static void registerScreen(Class<? extends BasePage> pageClass) {
+        if (pageClass.getAnnotation(Screen.class) == null) {
+            throw new IllegalArgumentException(pageClass.getSimpleName() + " is not annotated with @Screen");
+        }
+        if (!screens.contains(pageClass)) {
+            screens.add(pageClass);
+        }
+    }
+
+    /** Add a UI transition that takes the given number of taps. */
+    public static void register(Class<? extends BasePage> from, Class<? extends BasePage> to,
+                                int taps, Consumer<AndroidDriver> action) {
+        transitions.add(new Transition(from, to, taps * TAP_ESTIMATE_MILLIS, action));
+    }
+
+    // ======= NAVIGATION =======
+
+    /** Screen currently shown, detected from one page-source fetch, or null if unknown. */
+    public Class<? extends BasePage> currentScreen() {
+        PageSnapshot.invalidate(driver);
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+        for (Class<? extends BasePage> screen : screens) {
+            By marker = markerOf(screen);
+            if (!PageSnapshot.supports(marker)) {
+                if (!driver.findElements(marker).isEmpty()) {
+                    return screen;
+                }
+                continue;
+            }
+            int node = snapshot.find(marker);
+            if (node >= 0 && snapshot.isDisplayed(node)) {
+                return screen;
+            }
+        }
+        return null;
+    }
+
+    /** Go to the target screen along the cheapest known route and return its page object. */
+    public <T extends BasePage> T navigateTo(Class<T> target) {
+        Class<? extends BasePage> current = currentScreen();
+        if (target.equals(current)) {
+            return Pages.get(driver, target);
+        }
+
+        List<Transition> route = findRoute(current, target);
+        if (route == null) {
+            throw new IllegalStateException("No route from " + name(current) + " to " + target.getSimpleName());
+        }
+        for (Transition step : route) {
+            step.traverse(driver);
+        }
+
+        T page = Pages.get(driver, target);
+        if (!page.waits.expectPresent(markerOf(target))) {
+            throw new IllegalStateException("Navigation to " + target.getSimpleName() + " did not arrive");
+        }
+        return page;
+    }
+
+    // ======= ROUTING =======
+
+    /** Dijkstra over UI transitions and deep links; null if the target is unreachable. */
+    List<Transition> findRoute(Class<? extends BasePage> from, Class<? extends BasePage> target) {
+        Map<Class<? extends BasePage>, Long> best = new HashMap<>();
+        Map<Class<? extends BasePage>, Transition> via = new HashMap<>();
+        Set<Class<? extends BasePage>> done = new HashSet<>();
+        PriorityQueue<Object[]> queue = new PriorityQueue<>((a, b) -> Long.compare((Long) a[1], (Long) b[1]));
+
+        // Deep links work from any screen, including an unrecognised one
+        for (Transition link : deepLinks()) {
+            best.put(link.to, link.cost());
+            via.put(link.to, link);
+            queue.add(new Object[]{link.to, link.cost()});
+        }
+        if (from != null) {
+            best.put(from, 0L);
+            via.remove(from);
+            queue.add(new Object[]{from, 0L});
+        }
+
+        while (!queue.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            Class<? extends BasePage> screen = (Class<? extends BasePage>) queue.poll()[0];
+            if (!done.add(screen)) {
+                continue;
+            }
+            if (screen.equals(target)) {
+                break;
+            }
+            for (Transition transition : transitions) {
+                if (!transition.from.equals(screen)) {
+                    continue;
+                }
+                long cost = best.get(screen) + transition.cost();
+                if (cost < best.getOrDefault(transition.to, Long.MAX_VALUE)) {
+                    best.put(transition.to, cost);
+                    via.put(transition.to, transition);
+                    queue.add(new Object[]{transition.to, cost});
+                }
+            }
+        }
+
+        if (!via.containsKey(target)) {
+            return null;
+        }
+        Deque<Transition> route = new ArrayDeque<>();
+        for (Class<? extends BasePage> screen = target; via.containsKey(screen); ) {
+            Transition step = via.get(screen);
+            route.addFirst(step);
+            if (step.from == null) {
+                break;
+            }
+            screen = step.from;
+        }
+        return new ArrayList<>(route);
+    }
+
+    private static List<Transition> deepLinks() {
+        List<Transition> links = new ArrayList<>();
+        if (!AppiumUtils.getBooleanProperty("navigation.deeplinks.enabled", true)) {
+            return links;
+        }
+        for (Class<? extends BasePage> screen : screens) {
+            String url = screen.getAnnotation(Screen.class).deepLink();
+            if (!url.isEmpty()) {
+                links.add(DeepLink.to(screen, url));
+            }
+        }
+        return links;
+    }
+
+    private static By markerOf(Class<? extends BasePage> screen) {
+        String field = screen.getAnnotation(Screen.class).marker();
+        By marker = PageMetadata.of(screen).locators().get(field);
+        if (marker == null) {
+            throw new IllegalStateException(screen.getSimpleName() + " has no @AndroidFindBy field '" + field + "'");
+        }
+        return marker;
+    }
+
+    /** Open an app deep link (mydemoapprn://...) in the app under test. */
+    public static void openDeepLink(AndroidDriver driver, String url) {
+        Map<String, Object> args = new HashMap<>();
+        args.put("url", url);
+        args.put("package", AppiumUtils.getProperty("app.package"));
+        driver.executeScript("mobile: deepLink", args);
+    }
+
+    private static String name(Class<?> screen) {
+        return screen == null ? "an unknown screen" : screen.getSimpleName();
+    }
+
+    // ======= EDGES =======
+
+    /** A directed edge; from == null for deep links, which start anywhere. */
+    static class Transition {
+        final Class<? extends BasePage> from;
+        final Class<? extends BasePage> to;
+        private final long estimateMillis;
+        private final Consumer<AndroidDriver> action;
+        private long traversals;
+        private long totalMillis;
+
+        Transition(Class<? extends BasePage> from, Class<? extends BasePage> to,
+                   long estimateMillis, Consumer<AndroidDriver> action) {
+            this.from = from;
+            this.to = to;
+            this.estimateMillis = estimateMillis;
+            this.action = action;
+        }
+
+        /** Observed average once traversed, the estimate before that. */
+        synchronized long cost() {
+            return traversals == 0 ? estimateMillis : totalMillis / traversals;
+        }
+
+        void traverse(AndroidDriver driver) {
+            long start = System.nanoTime();
+            action.accept(driver);
+            PageSnapshot.invalidate(driver);
+            ElementCache.invalidate(driver);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            synchronized (this) {
+                traversals++;
+                totalMillis += millis;
+            }
+        }
+    }
+
+    /** Deep-link edges are shared so their observed cost is remembered too. */
+    private static final class DeepLink {
+        private static final Map<Class<?>, Transition> links = new HashMap<>();
+
+        static synchronized Transition to(Class<? extends BasePage> screen, String url) {
+            return links.computeIfAbsent(screen, s -> new Transition(null, screen, DEEP_LINK_ESTIMATE_MILLIS,
+                    d -> openDeepLink(d, url)));
+        }
+    }
+}
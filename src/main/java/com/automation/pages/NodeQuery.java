@@ -0,0 +1,206 @@
+package com.automation.pages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The common shape behind most of our locators: a class name (or any class)
+ * plus attribute conditions on text, content-desc or resource-id.
+ *
+ * Parsed from simple XPaths (//class[@attr='v' and contains(@attr,'v')]) and
+ * from the UiSelector chains this class generates, so the same query can be
+ * compiled to a native selector and still be evaluated against a snapshot.
+ */
+final class NodeQuery {
+
+    static final String ANY_CLASS = "*";
+
+    enum Operator { EQUALS, CONTAINS, STARTS_WITH }
+
+    static final class Condition {
+        final String attribute;
+        final Operator operator;
+        final String value;
+
+        Condition(String attribute, Operator operator, String value) {
+            this.attribute = attribute;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        boolean test(String actual) {
+            if (actual == null) {
+                return false;
+            }
+            switch (operator) {
+                case CONTAINS:
+                    return actual.contains(value);
+                case STARTS_WITH:
+                    return actual.startsWith(value);
+                default:
+                    return actual.equals(value);
+            }
+        }
+    }
+
+    private static final Pattern XPATH = Pattern.compile("^//([\\w.$]+|\\*)(?:\\[(.+)])?$");
+    private static final Pattern EQUALS = Pattern.compile("^@([\\w-]+)\\s*=\\s*'([^']*)'$");
+    private static final Pattern FUNCTION =
+            Pattern.compile("^(contains|starts-with)\\(\\s*@([\\w-]+)\\s*,\\s*'([^']*)'\\s*\\)$");
+    private static final Pattern UI_SELECTOR_START = Pattern.compile("^new UiSelector\\(\\)");
+    private static final Pattern UI_SELECTOR_CALL = Pattern.compile("\\.(\\w+)\\(\"((?:[^\"\\\\]|\\\\.)*)\"\\)");
+
+    final String className;
+    final List<Condition> conditions;
+
+    NodeQuery(String className, List<Condition> conditions) {
+        this.className = className;
+        this.conditions = Collections.unmodifiableList(conditions);
+    }
+
+    static NodeQuery of(String className, String attribute, String value) {
+        List<Condition> conditions = new ArrayList<>();
+        if (attribute != null) {
+            conditions.add(new Condition(attribute, Operator.EQUALS, value));
+        }
+        return new NodeQuery(className, conditions);
+    }
+
+    // ======= PARSING =======
+
+    /** Parse a simple XPath, or return null if it uses anything beyond the supported shape. */
+    static NodeQuery fromXPath(String xpath) {
+        Matcher m = XPATH.matcher(xpath.trim());
+        if (!m.matches()) {
+            return null;
+        }
+        List<Condition> conditions = new ArrayList<>();
+        if (m.group(2) != null) {
+            for (String predicate : m.group(2).split("\\s+and\\s+")) {
+                predicate = predicate.trim();
+                Matcher eq = EQUALS.matcher(predicate);
+                Matcher fn = FUNCTION.matcher(predicate);
+                if (eq.matches()) {
+                    conditions.add(new Condition(eq.group(1), Operator.EQUALS, eq.group(2)));
+                } else if (fn.matches()) {
+                    Operator op = "contains".equals(fn.group(1)) ? Operator.CONTAINS : Operator.STARTS_WITH;
+                    conditions.add(new Condition(fn.group(2), op, fn.group(3)));
+                } else {
+                    return null;
+                }
+            }
+        }
+        return new NodeQuery(m.group(1), conditions);
+    }
+
+    /** Parse a UiSelector chain as produced by {@link #toUiSelector()}, or return null. */
+    static NodeQuery fromUiSelector(String selector) {
+        String rest = selector.trim();
+        if (rest.endsWith(";")) {
+            rest = rest.substring(0, rest.length() - 1);
+        }
+        Matcher start = UI_SELECTOR_START.matcher(rest);
+        if (!start.find()) {
+            return null;
+        }
+        rest = rest.substring(start.end());
+
+        String className = ANY_CLASS;
+        List<Condition> conditions = new ArrayList<>();
+        Matcher call = UI_SELECTOR_CALL.matcher(rest);
+        int position = 0;
+        while (call.find() && call.start() == position) {
+            String value = call.group(2).replace("\\\"", "\"").replace("\\\\", "\\");
+            String method = call.group(1);
+            if ("className".equals(method)) {
+                className = value;
+            } else {
+                Condition condition = conditionFor(method, value);
+                if (condition == null) {
+                    return null;
+                }
+                conditions.add(condition);
+            }
+            position = call.end();
+        }
+        return position == rest.length() ? new NodeQuery(className, conditions) : null;
+    }
+
+    // ======= RENDERING =======
+
+    /** Equivalent UiSelector chain, or null if a condition has no UiSelector counterpart. */
+    String toUiSelector() {
+        StringBuilder selector = new StringBuilder("new UiSelector()");
+        if (!ANY_CLASS.equals(className)) {
+            appendCall(selector, "className", className);
+        }
+        for (Condition condition : conditions) {
+            String method = uiSelectorMethod(condition);
+            if (method == null) {
+                return null;
+            }
+            appendCall(selector, method, condition.value);
+        }
+        return selector.toString();
+    }
+
+    /** The content-desc value if this query is exactly an accessibility id lookup, else null. */
+    String accessibilityId() {
+        if (ANY_CLASS.equals(className) && conditions.size() == 1) {
+            Condition only = conditions.get(0);
+            if ("content-desc".equals(only.attribute) && only.operator == Operator.EQUALS) {
+                return only.value;
+            }
+        }
+        return null;
+    }
+
+    // ======= HELPERS =======
+
+    private static String uiSelectorMethod(Condition condition) {
+        switch (condition.attribute) {
+            case "text":
+                return condition.operator == Operator.EQUALS ? "text"
+                        : condition.operator == Operator.CONTAINS ? "textContains" : "textStartsWith";
+            case "content-desc":
+                return condition.operator == Operator.EQUALS ? "description"
+                        : condition.operator == Operator.CONTAINS ? "descriptionContains" : "descriptionStartsWith";
+            case "resource-id":
+                return condition.operator == Operator.EQUALS ? "resourceId" : null;
+            case "class":
+                return condition.operator == Operator.EQUALS ? "className" : null;
+            default:
+                return null;
+        }
+    }
+
+    private static Condition conditionFor(String method, String value) {
+        switch (method) {
+            case "text":
+                return new Condition("text", Operator.EQUALS, value);
+            case "textContains":
+                return new Condition("text", Operator.CONTAINS, value);
+            case "textStartsWith":
+                return new Condition("text", Operator.STARTS_WITH, value);
+            case "description":
+                return new Condition("content-desc", Operator.EQUALS, value);
+            case "descriptionContains":
+                return new Condition("content-desc", Operator.CONTAINS, value);
+            case "descriptionStartsWith":
+                return new Condition("content-desc", Operator.STARTS_WITH, value);
+            case "resourceId":
+                return new Condition("resource-id", Operator.EQUALS, value);
+            default:
+                return null;
+        }
+    }
+
+    private static void appendCall(StringBuilder selector, String method, String value) {
+        selector.append('.').append(method).append("(\"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\""))
+                .append("\")");
+    }
+}
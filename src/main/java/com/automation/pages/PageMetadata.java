@@ -0,0 +1,113 @@
+package com.automation.pages;
+
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Locator metadata of a page class, scanned once per class.
+ *
+ * The {@code @AndroidFindBy} fields are reflected over and their locators
+ * built and compiled the first time a page class is used; every later page
+ * instance only gets fresh element proxies assigned to the cached fields.
+ */
+final class PageMetadata {
+
+    private static final ClassValue<PageMetadata> CACHE = new ClassValue<PageMetadata>() {
+        @Override
+        protected PageMetadata computeValue(Class<?> type) {
+            return scan(type);
+        }
+    };
+
+    private final List<ElementField> fields;
+    private final Map<String, By> locators;
+
+    private PageMetadata(List<ElementField> fields) {
+        this.fields = Collections.unmodifiableList(fields);
+        Map<String, By> byName = new LinkedHashMap<>();
+        for (ElementField elementField : fields) {
+            byName.put(elementField.field.getName(), elementField.by);
+        }
+        this.locators = Collections.unmodifiableMap(byName);
+    }
+
+    static PageMetadata of(Class<?> pageClass) {
+        return CACHE.get(pageClass);
+    }
+
+    /** Assign element proxies for this page instance to every locator field. */
+    void bind(BasePage page) {
+        ClassLoader loader = page.getClass().getClassLoader();
+        for (ElementField elementField : fields) {
+            Object proxy = elementField.list
+                    ? Proxy.newProxyInstance(loader, new Class<?>[]{List.class},
+                            new ElementListHandler(page, elementField.by))
+                    : Proxy.newProxyInstance(loader, new Class<?>[]{WebElement.class},
+                            new ElementHandler(page, elementField.by));
+            try {
+                elementField.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException("Cannot initialise " + elementField.field + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /** Compiled locators keyed by field name, in declaration order. */
+    Map<String, By> locators() {
+        return locators;
+    }
+
+    // ======= SCANNING =======
+
+    private static PageMetadata scan(Class<?> pageClass) {
+        List<ElementField> fields = new ArrayList<>();
+        for (Class<?> type = pageClass; type != null && type != BasePage.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                AndroidFindBy findBy = field.getAnnotation(AndroidFindBy.class);
+                if (findBy == null) {
+                    continue;
+                }
+                boolean list = isElementList(field);
+                if (!list && !WebElement.class.equals(field.getType())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                By by = LocatorCompiler.compile(Locators.fromAnnotation(findBy));
+                fields.add(new ElementField(field, by, list));
+            }
+        }
+        return new PageMetadata(fields);
+    }
+
+    private static boolean isElementList(Field field) {
+        if (!List.class.equals(field.getType())) {
+            return false;
+        }
+        Type type = field.getGenericType();
+        return type instanceof ParameterizedType
+                && WebElement.class.equals(((ParameterizedType) type).getActualTypeArguments()[0]);
+    }
+
+    private static final class ElementField {
+        private final Field field;
+        private final By by;
+        private final boolean list;
+
+        private ElementField(Field field, By by, boolean list) {
+            this.field = field;
+            this.by = by;
+            this.list = list;
+        }
+    }
+}
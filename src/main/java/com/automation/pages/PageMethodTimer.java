@@ -0,0 +1,104 @@
+package com.automation.pages;
+
+import com.automation.utils.LatencyMetrics;
+import com.automation.utils.Tracer;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.RuntimeType;
+import net.bytebuddy.implementation.bind.annotation.SuperCall;
+import net.bytebuddy.implementation.bind.annotation.This;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static net.bytebuddy.matcher.ElementMatchers.isDeclaredBy;
+import static net.bytebuddy.matcher.ElementMatchers.isPublic;
+import static net.bytebuddy.matcher.ElementMatchers.not;
+
+/**
+ * Records the latency of public page object methods as "Page.method", and
+ * traces each call as a span. Nested calls (login calling enterUsername) are
+ * each recorded.
+ *
+ * Timing is done by a subclass of the page generated once per page class
+ * (LoginPage$Timed) and loaded next to it; instances are created through its
+ * constructor, so no class is generated per session.
+ */
+final class PageMethodTimer {
+
+    private static final ReentrantLock LOCK = new ReentrantLock();
+
+    private static final ClassValue<Class<? extends BasePage>> TIMED_CLASSES =
+            new ClassValue<Class<? extends BasePage>>() {
+                @Override
+                protected Class<? extends BasePage> computeValue(Class<?> pageClass) {
+                    return generate(pageClass.asSubclass(BasePage.class));
+                }
+            };
+
+    private PageMethodTimer() {
+    }
+
+    /** The timing subclass of the page class. */
+    static Class<? extends BasePage> timedClass(Class<? extends BasePage> pageClass) {
+        return TIMED_CLASSES.get(pageClass);
+    }
+
+    /** The page class a (possibly timing) page instance was declared as. */
+    static Class<?> declaredClass(Class<?> type) {
+        return Timed.class.isAssignableFrom(type) ? type.getSuperclass() : type;
+    }
+
+    /** Called by the generated subclasses in place of every public page method. */
+    @RuntimeType
+    public static Object time(@This Object page, @Origin Method method,
+                              @SuperCall Callable<?> original) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return original.call();
+        } finally {
+            String name = declaredClass(page.getClass()).getSimpleName() + "." + method.getName();
+            Tracer.end(Tracer.PAGE, name, start);
+            if (LatencyMetrics.isEnabled()) {
+                LatencyMetrics.record(LatencyMetrics.PAGE, name, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static Class<? extends BasePage> generate(Class<? extends BasePage> pageClass) {
+        String name = pageClass.getName() + "$Timed";
+        // ClassValue may compute concurrently for parallel sessions; only one may define the class
+        LOCK.lock();
+        try {
+            try {
+                return Class.forName(name, false, pageClass.getClassLoader()).asSubclass(pageClass);
+            } catch (ClassNotFoundException e) {
+                // not generated yet
+            }
+            // BasePage plumbing (snapshot mode etc.) is framework overhead, not a page action
+            return new ByteBuddy()
+                    .subclass(pageClass)
+                    .name(name)
+                    .implement(Timed.class)
+                    .method(isPublic().and(not(isDeclaredBy(Object.class))).and(not(isDeclaredBy(BasePage.class))))
+                    .intercept(MethodDelegation.to(PageMethodTimer.class))
+                    .make()
+                    .load(pageClass.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(
+                            MethodHandles.privateLookupIn(pageClass, MethodHandles.lookup())))
+                    .getLoaded();
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Cannot generate timing subclass of " + pageClass.getSimpleName()
+                    + ": " + e.getMessage());
+        } finally {
+            LOCK.unlock();
+        }
+    }
+
+    /** Marks generated timing subclasses. */
+    interface Timed {
+    }
+}
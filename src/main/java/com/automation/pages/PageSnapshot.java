@@ -0,0 +1,239 @@
+package com.automation.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * One getPageSource() round trip, parsed into a compact in-memory tree.
+ *
+ * While snapshot mode is on, element queries (isDisplayed, getText, list size)
+ * are answered from the snapshot instead of one HTTP command each. A snapshot
+ * belongs to a driver session and is dropped as soon as any page action
+ * (click, sendKeys, clear) could have changed the screen.
+ *
+ * Supported locators: accessibility id, id, class name, simple XPath and the
+ * UiSelector chains produced by {@link LocatorCompiler} (see {@link NodeQuery}).
+ * Anything else is answered live.
+ */
+public class PageSnapshot {
+
+    private static final Map<WebDriver, PageSnapshot> snapshots =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final XMLInputFactory XML = newXmlFactory();
+
+    // Node attributes, indexed by document order
+    private final List<String> classNames = new ArrayList<>();
+    private final List<String> texts = new ArrayList<>();
+    private final List<String> descriptions = new ArrayList<>();
+    private final List<String> resourceIds = new ArrayList<>();
+    private final List<Boolean> displayed = new ArrayList<>();
+
+    private PageSnapshot() {
+    }
+
+    // ======= SESSION-SCOPED ACCESS =======
+
+    /** Current snapshot for the driver, fetching the page source if there is none. */
+    public static PageSnapshot of(WebDriver driver) {
+        PageSnapshot snapshot = snapshots.get(driver);
+        if (snapshot == null) {
+            // Fetched outside any lock: sessions must not wait on each other's page source
+            snapshot = parse(driver.getPageSource());
+            PageSnapshot raced = snapshots.putIfAbsent(driver, snapshot);
+            if (raced != null) {
+                snapshot = raced;
+            }
+        }
+        return snapshot;
+    }
+
+    /** Drop the driver's snapshot; the next query fetches a fresh page source. */
+    public static void invalidate(WebDriver driver) {
+        snapshots.remove(driver);
+    }
+
+    // ======= QUERIES =======
+
+    /** Whether the locator can be evaluated against a snapshot at all. */
+    public static boolean supports(By by) {
+        return LocatorQuery.compile(by) != null;
+    }
+
+    /** Index of the first node matching the locator, or -1. */
+    public int find(By by) {
+        LocatorQuery query = LocatorQuery.compile(by);
+        for (int i = 0; i < classNames.size(); i++) {
+            if (query.matches(this, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Number of nodes matching the locator. */
+    public int count(By by) {
+        LocatorQuery query = LocatorQuery.compile(by);
+        int count = 0;
+        for (int i = 0; i < classNames.size(); i++) {
+            if (query.matches(this, i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public boolean isDisplayed(int node) {
+        return displayed.get(node);
+    }
+
+    public String getText(int node) {
+        return texts.get(node);
+    }
+
+    public int size() {
+        return classNames.size();
+    }
+
+    // ======= PARSING =======
+
+    /** Stream the page source into the compact node lists. */
+    static PageSnapshot parse(String pageSource) {
+        PageSnapshot snapshot = new PageSnapshot();
+        XMLStreamReader reader = null;
+        try {
+            reader = XML.createXMLStreamReader(new StringReader(pageSource));
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String className = reader.getAttributeValue(null, "class");
+                snapshot.classNames.add(className != null ? className : reader.getLocalName());
+                snapshot.texts.add(valueOrEmpty(reader.getAttributeValue(null, "text")));
+                snapshot.descriptions.add(valueOrEmpty(reader.getAttributeValue(null, "content-desc")));
+                snapshot.resourceIds.add(valueOrEmpty(reader.getAttributeValue(null, "resource-id")));
+                // Hierarchy root and non-UiAutomator2 nodes carry no displayed flag
+                snapshot.displayed.add(!"false".equals(reader.getAttributeValue(null, "displayed")));
+            }
+        } catch (XMLStreamException e) {
+            throw new RuntimeException("Cannot parse page source: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+        return snapshot;
+    }
+
+    private static XMLInputFactory newXmlFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException ignored) {
+                // nothing to release for an in-memory source
+            }
+        }
+    }
+
+    private String attribute(int node, String name) {
+        switch (name) {
+            case "text":
+                return texts.get(node);
+            case "content-desc":
+                return descriptions.get(node);
+            case "resource-id":
+                return resourceIds.get(node);
+            case "class":
+                return classNames.get(node);
+            default:
+                return null;
+        }
+    }
+
+    // ======= LOCATOR MATCHING =======
+
+    /** Locator reduced to a {@link NodeQuery} over the indexed attributes. */
+    private static final class LocatorQuery {
+
+        private final NodeQuery query;
+
+        private LocatorQuery(NodeQuery query) {
+            this.query = query;
+        }
+
+        static LocatorQuery compile(By by) {
+            if (!(by instanceof By.Remotable)) {
+                return null;
+            }
+            By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+            String value = String.valueOf(parameters.value());
+            NodeQuery query;
+            switch (parameters.using()) {
+                case "accessibility id":
+                    query = NodeQuery.of(NodeQuery.ANY_CLASS, "content-desc", value);
+                    break;
+                case "id":
+                    query = NodeQuery.of(NodeQuery.ANY_CLASS, "resource-id", value);
+                    break;
+                case "class name":
+                    query = NodeQuery.of(value, null, null);
+                    break;
+                case "xpath":
+                    query = NodeQuery.fromXPath(value);
+                    break;
+                case "-android uiautomator":
+                    query = NodeQuery.fromUiSelector(value);
+                    break;
+                default:
+                    query = null;
+            }
+            if (query == null) {
+                return null;
+            }
+            for (NodeQuery.Condition condition : query.conditions) {
+                if (!isIndexed(condition.attribute)) {
+                    return null;
+                }
+            }
+            return new LocatorQuery(query);
+        }
+
+        private static boolean isIndexed(String attribute) {
+            return "text".equals(attribute) || "content-desc".equals(attribute)
+                    || "resource-id".equals(attribute) || "class".equals(attribute);
+        }
+
+        boolean matches(PageSnapshot snapshot, int node) {
+            if (!NodeQuery.ANY_CLASS.equals(query.className)
+                    && !query.className.equals(snapshot.classNames.get(node))) {
+                return false;
+            }
+            for (NodeQuery.Condition condition : query.conditions) {
+                if (!condition.test(snapshot.attribute(node, condition.attribute))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
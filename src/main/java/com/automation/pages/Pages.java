@@ -0,0 +1,80 @@
+package com.automation.pages;
+
+import io.appium.java_client.android.AndroidDriver;
+import com.automation.utils.LatencyMetrics;
+import com.automation.utils.Tracer;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Hands out page objects bound to a driver session.
+ * Page instances carry no test state, so one instance per page class is kept
+ * for each session and reused by every test method running on it; snapshot
+ * mode goes back to its configured default each time a page is handed out. While
+ * metrics are enabled the instances are of the page's timing subclass
+ * ({@link PageMethodTimer}).
+ */
+public class Pages {
+
+    private static final Map<WebDriver, Map<Class<?>, BasePage>> pagesBySession =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            try {
+                return type.getConstructor(AndroidDriver.class);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(type.getName() + " has no (AndroidDriver) constructor");
+            }
+        }
+    };
+
+    private Pages() {
+    }
+
+    /** The session's instance of the page class, created on first use. */
+    public static <T extends BasePage> T get(AndroidDriver driver, Class<T> pageClass) {
+        Map<Class<?>, BasePage> pages;
+        synchronized (pagesBySession) {
+            // Pages hold their driver, so entries of quit sessions are dropped explicitly
+            pagesBySession.keySet().removeIf(d -> ((RemoteWebDriver) d).getSessionId() == null);
+            pages = pagesBySession.computeIfAbsent(driver, d -> new HashMap<>());
+        }
+        BasePage page;
+        synchronized (pages) {
+            page = pages.get(pageClass);
+            if (page == null) {
+                page = newPage(driver, pageClass);
+                pages.put(pageClass, page);
+            }
+        }
+        // Handing out a page starts a new step: never trust a snapshot or snapshot mode from before it
+        page.resetSnapshotMode();
+        PageSnapshot.invalidate(driver);
+        ElementCache.invalidate(driver);
+        return pageClass.cast(page);
+    }
+
+    private static BasePage newPage(AndroidDriver driver, Class<? extends BasePage> pageClass) {
+        // Subclass that times every public page method, e.g. LoginPage.login
+        Class<? extends BasePage> type = LatencyMetrics.isEnabled() || Tracer.isEnabled()
+                ? PageMethodTimer.timedClass(pageClass) : pageClass;
+        try {
+            return (BasePage) CONSTRUCTORS.get(type).newInstance(driver);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause
+                    : new RuntimeException("Cannot create " + pageClass.getSimpleName() + ": " + cause);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Cannot create " + pageClass.getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
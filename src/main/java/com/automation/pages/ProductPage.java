@@ -2,21 +2,16 @@ package com.automation.pages;
 
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.pagefactory.AndroidFindBy;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
-import java.time.Duration;
 
 /**
  * Page Object for the Product Detail screen of SauceLabs My Demo App.
  * Encapsulates product details, pricing, and add-to-cart actions.
+ * No deep link: product ids do not follow catalog order, so the only route
+ * is tapping the first catalog product, the one tests open themselves.
  */
-public class ProductPage {
-
-    private AndroidDriver driver;
-    private WebDriverWait wait;
+@Screen(marker = "productTitle")
+public class ProductPage extends BasePage {
 
     // ======= ELEMENT LOCATORS (SauceLabs My Demo App) =======
 
@@ -46,61 +41,54 @@ public class ProductPage {
 
     // ======= CONSTRUCTOR =======
     public ProductPage(AndroidDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        super(driver);
     }
 
     // ======= PAGE ACTIONS =======
 
     /** Get the title text of the current product. */
     public String getProductTitle() {
-        wait.until(ExpectedConditions.visibilityOf(productTitle));
+        waits.waitForVisible(productTitle);
         return productTitle.getText();
     }
 
     /** Get the price text of the current product. */
     public String getProductPrice() {
-        return productPrice.getText();
+        return waits.waitForVisible(productPrice).getText();
     }
 
     /** Click the Add To Cart button. */
     public void clickAddToCart() {
-        addToCartButton.click();
+        waits.waitForVisible(addToCartButton).click();
     }
 
     /** Navigate back to the product listing. */
     public void clickBack() {
-        backButton.click();
+        waits.waitForVisible(backButton).click();
     }
 
     /** Check if the product detail page is displayed. */
     public boolean isProductPageDisplayed() {
-        try {
-            wait.until(ExpectedConditions.visibilityOf(productTitle));
-            return productTitle.isDisplayed();
-        } catch (Exception e) {
-            return false;
-        }
+        return waits.expectPresent(productTitle);
     }
 
     /** Increase the product quantity. */
     public void increaseQuantity() {
-        increaseQuantityButton.click();
+        waits.waitForVisible(increaseQuantityButton).click();
     }
 
     /** Decrease the product quantity. */
     public void decreaseQuantity() {
-        decreaseQuantityButton.click();
+        waits.waitForVisible(decreaseQuantityButton).click();
     }
 
     /** Get the current quantity value. */
     public String getQuantity() {
-        return quantityAmount.getText();
+        return waits.waitForVisible(quantityAmount).getText();
     }
 
     /** Click on cart badge to go to cart. */
     public void goToCart() {
-        cartBadge.click();
+        waits.waitForVisible(cartBadge).click();
     }
 }
@@ -0,0 +1,20 @@
+package com.automation.pages;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares a page object as a screen of the navigation graph.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Screen {
+
+    /** Name of the {@code @AndroidFindBy} field whose presence identifies the screen. */
+    String marker();
+
+    /** Deep link that opens the screen directly, if the app supports one. */
+    String deepLink() default "";
+}
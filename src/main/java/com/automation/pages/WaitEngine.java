@@ -0,0 +1,136 @@
+package com.automation.pages;
+
+import com.automation.utils.AppiumUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Single place where page objects wait for the UI.
+ *
+ * Implicit waits are disabled on every session, so each query here has its own
+ * explicit budget: "expect present" queries wait up to wait.present seconds,
+ * "expect absent" queries up to wait.absent, and optional elements that may
+ * legitimately be missing are probed for at most wait.probe. Time spent in
+ * each call is accumulated per thread so the report can show it per test.
+ * Every poll after the first drops the page snapshot, so waits in snapshot
+ * mode observe the live screen rather than a stale copy.
+ */
+public class WaitEngine {
+
+    private static final Duration POLLING = Duration.ofMillis(200);
+    private static final ThreadLocal<long[]> waitedNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final WebDriver driver;
+
+    public WaitEngine(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    // ======= QUERIES =======
+
+    /** Wait for the element to become visible; returns false if it does not within the present budget. */
+    public boolean expectPresent(WebElement element) {
+        return isVisibleWithin(element, presentBudget());
+    }
+
+    /** Wait for an element matching the locator to become visible, for callers without a page field. */
+    public boolean expectPresent(By locator) {
+        return awaitCondition(ExpectedConditions.visibilityOfElementLocated(locator), presentBudget());
+    }
+
+    /** Wait until at least one element of the list is present; returns false if none shows up. */
+    public boolean expectAny(List<WebElement> elements) {
+        return awaitCondition(d -> elements.isEmpty() ? null : elements, presentBudget());
+    }
+
+    /** Wait for the element to disappear; returns false if it is still visible after the absent budget. */
+    public boolean expectAbsent(WebElement element) {
+        return awaitCondition(ExpectedConditions.invisibilityOf(element), absentBudget());
+    }
+
+    /** Check an element that may legitimately be missing, without paying the full present budget. */
+    public boolean probe(WebElement element) {
+        return isVisibleWithin(element, probeBudget());
+    }
+
+    /** Wait for the element before interacting with it; fails the step if it never shows up. */
+    public WebElement waitForVisible(WebElement element) {
+        long start = System.nanoTime();
+        try {
+            return newWait(presentBudget()).until(freshEachPoll(ExpectedConditions.visibilityOf(element)));
+        } finally {
+            record(start);
+        }
+    }
+
+    // ======= WAIT ACCOUNTING =======
+
+    /** Milliseconds the current thread has spent waiting since the last reset. */
+    public static long getWaitedMillis() {
+        return waitedNanos.get()[0] / 1_000_000;
+    }
+
+    /** Reset the current thread's wait counter, typically at test start. */
+    public static void resetWaitedTime() {
+        waitedNanos.get()[0] = 0;
+    }
+
+    // ======= HELPERS =======
+
+    private boolean isVisibleWithin(WebElement element, Duration budget) {
+        return awaitCondition(ExpectedConditions.visibilityOf(element), budget);
+    }
+
+    private boolean awaitCondition(Function<WebDriver, ?> condition, Duration budget) {
+        long start = System.nanoTime();
+        try {
+            Object result = newWait(budget).until(freshEachPoll(condition));
+            return result != null && !Boolean.FALSE.equals(result);
+        } catch (TimeoutException e) {
+            return false;
+        } finally {
+            record(start);
+        }
+    }
+
+    private static <T> Function<WebDriver, T> freshEachPoll(Function<WebDriver, T> condition) {
+        boolean[] firstPoll = {true};
+        return d -> {
+            if (!firstPoll[0]) {
+                PageSnapshot.invalidate(d);
+            }
+            firstPoll[0] = false;
+            return condition.apply(d);
+        };
+    }
+
+    private WebDriverWait newWait(Duration budget) {
+        WebDriverWait wait = new WebDriverWait(driver, budget);
+        wait.pollingEvery(POLLING);
+        return wait;
+    }
+
+    private static void record(long startNanos) {
+        waitedNanos.get()[0] += System.nanoTime() - startNanos;
+    }
+
+    private static Duration presentBudget() {
+        return Duration.ofSeconds(AppiumUtils.getIntProperty("wait.present", 10));
+    }
+
+    private static Duration absentBudget() {
+        return Duration.ofSeconds(AppiumUtils.getIntProperty("wait.absent", 3));
+    }
+
+    private static Duration probeBudget() {
+        return Duration.ofSeconds(AppiumUtils.getIntProperty("wait.probe", 2));
+    }
+}
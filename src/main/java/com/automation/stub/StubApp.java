@@ -0,0 +1,365 @@
+package com.automation.stub;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Scripted model of SauceLabs My Demo App: catalog, product detail, cart,
+ * login and the side menu, with the state the demo tests depend on. Login
+ * survives an app restart; the cart and screen stack do not.
+ */
+final class StubApp {
+
+    enum Screen { CATALOG, PRODUCT, CART, LOGIN }
+
+    private static final String[][] PRODUCTS = {
+            {"Sauce Labs Backpack", "29.99"},
+            {"Sauce Labs Bike Light", "9.99"},
+            {"Sauce Labs Bolt T-Shirt", "15.99"},
+            {"Sauce Labs Fleece Jacket", "49.99"},
+            {"Sauce Labs Onesie", "7.99"},
+            {"Test.allTheThings() T-Shirt", "15.99"}
+    };
+
+    private final String appPackage;
+    private final String validUsername;
+    private final String validPassword;
+
+    // Persisted app data
+    private boolean installed = true;
+    private boolean loggedIn;
+
+    // Process state
+    private boolean running = true;
+    private Screen screen = Screen.CATALOG;
+    private final Deque<Screen> backStack = new ArrayDeque<>();
+    private boolean menuOpen;
+    private int product;
+    private int quantity = 1;
+    private final Map<Integer, Integer> cart = new LinkedHashMap<>();
+    private String username = "";
+    private String password = "";
+    private String loginError;
+
+    // Bumped whenever the view structure may change, which makes element ids stale
+    private int structureVersion;
+    private final List<String> log = new ArrayList<>();
+
+    StubApp(String appPackage, String validUsername, String validPassword) {
+        this.appPackage = appPackage;
+        this.validUsername = validUsername;
+        this.validPassword = validPassword;
+        record("Displayed " + appPackage + "/.MainActivity");
+    }
+
+    String appPackage() {
+        return appPackage;
+    }
+
+    int structureVersion() {
+        return structureVersion;
+    }
+
+    /** Log lines for the logcat log type, oldest first. */
+    List<String> drainLog() {
+        List<String> lines = new ArrayList<>(log);
+        log.clear();
+        return lines;
+    }
+
+    // ======= LIFECYCLE =======
+
+    /** 0 not installed, 1 not running, 4 running in foreground (Appium's ApplicationState). */
+    int appState() {
+        return !installed ? 0 : running ? 4 : 1;
+    }
+
+    boolean terminate() {
+        boolean wasRunning = running;
+        running = false;
+        menuOpen = false;
+        cart.clear();
+        backStack.clear();
+        screen = Screen.CATALOG;
+        changed("Process " + appPackage + " terminated");
+        return wasRunning;
+    }
+
+    void activate() {
+        if (!installed) {
+            throw new IllegalStateException(appPackage + " is not installed");
+        }
+        if (!running) {
+            running = true;
+            screen = Screen.CATALOG;
+            changed("Start proc for activity " + appPackage + "/.MainActivity");
+        }
+    }
+
+    void clearData() {
+        terminate();
+        loggedIn = false;
+        changed("pm clear " + appPackage);
+    }
+
+    void remove() {
+        terminate();
+        loggedIn = false;
+        installed = false;
+        changed("Package " + appPackage + " removed");
+    }
+
+    void install() {
+        installed = true;
+        changed("Package " + appPackage + " installed");
+    }
+
+    boolean isInstalled() {
+        return installed;
+    }
+
+    /** Open mydemoapprn:// links the way the app's router does. */
+    void deepLink(String url) {
+        String route = url.replaceFirst("^[a-z]+://", "");
+        Screen target;
+        if (route.startsWith("store-overview")) {
+            target = Screen.CATALOG;
+        } else if (route.startsWith("login")) {
+            target = Screen.LOGIN;
+        } else if (route.startsWith("cart")) {
+            target = Screen.CART;
+        } else if (route.startsWith("product-details/")) {
+            try {
+                product = Math.floorMod(Integer.parseInt(route.substring("product-details/".length())) - 1,
+                        PRODUCTS.length);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Unknown product in deep link " + url);
+            }
+            target = Screen.PRODUCT;
+        } else {
+            throw new IllegalArgumentException("No route for deep link " + url);
+        }
+        activate();
+        backStack.clear();
+        if (target != Screen.CATALOG) {
+            backStack.push(Screen.CATALOG);
+        }
+        show(target);
+        changed("Deep link " + url);
+    }
+
+    void back() {
+        if (menuOpen) {
+            menuOpen = false;
+        } else if (!backStack.isEmpty()) {
+            show(backStack.pop());
+        }
+        changed("Back pressed");
+    }
+
+    // ======= NAVIGATION =======
+
+    private void open(Screen target) {
+        backStack.push(screen);
+        show(target);
+    }
+
+    private void openRoot(Screen target) {
+        backStack.clear();
+        show(target);
+    }
+
+    private void show(Screen target) {
+        screen = target;
+        menuOpen = false;
+        if (target == Screen.PRODUCT) {
+            quantity = 1;
+        } else if (target == Screen.LOGIN) {
+            username = "";
+            password = "";
+            loginError = null;
+        }
+    }
+
+    private void changed(String message) {
+        structureVersion++;
+        record(message);
+    }
+
+    private void record(String message) {
+        log.add(message);
+    }
+
+    // ======= RENDERING =======
+
+    /** Build the current view tree; node callbacks mutate this app. */
+    StubNode render() {
+        StubNode root = new StubNode("hierarchy", null, null);
+        StubNode frame = root.add(new StubNode("android.widget.FrameLayout", null, null));
+        if (!running) {
+            frame.add(new StubNode("android.widget.TextView", "Home", "Launcher"));
+            return root;
+        }
+
+        StubNode content = frame.add(new StubNode("android.view.ViewGroup", null, null));
+        header(content);
+        switch (screen) {
+            case CATALOG:
+                catalog(content);
+                break;
+            case PRODUCT:
+                productDetail(content);
+                break;
+            case CART:
+                cartScreen(content);
+                break;
+            default:
+                loginScreen(content);
+        }
+        if (menuOpen) {
+            // The drawer covers the screen underneath
+            content.hidden = true;
+            menu(frame);
+        }
+        return root;
+    }
+
+    private void header(StubNode parent) {
+        parent.add(new StubNode("android.view.ViewGroup", null, "open menu"))
+                .onClick(() -> { menuOpen = true; changed("Menu opened"); });
+        StubNode badge = parent.add(new StubNode("android.view.ViewGroup", null, "cart badge"))
+                .onClick(() -> { open(Screen.CART); changed("Cart opened"); });
+        int items = cartCount();
+        if (items > 0) {
+            badge.add(new StubNode("android.widget.TextView", String.valueOf(items), null));
+        }
+    }
+
+    private void catalog(StubNode parent) {
+        parent.add(new StubNode("android.widget.TextView", "Products", "container header"));
+        parent.add(new StubNode("android.view.ViewGroup", null, "sort button"))
+                .onClick(() -> record("Sort opened"));
+        for (int i = 0; i < PRODUCTS.length; i++) {
+            int selected = i;
+            StubNode item = parent.add(new StubNode("android.view.ViewGroup", null, "store item"))
+                    .onClick(() -> { product = selected; open(Screen.PRODUCT); changed("Product " + selected); });
+            item.add(new StubNode("android.widget.TextView", PRODUCTS[i][0], "store item text"));
+            item.add(new StubNode("android.widget.TextView", price(PRODUCTS[i][1]), "store item price"));
+        }
+    }
+
+    private void productDetail(StubNode parent) {
+        parent.add(new StubNode("android.view.ViewGroup", null, "Go back")).onClick(this::back);
+        parent.add(new StubNode("android.widget.TextView", PRODUCTS[product][0], "product title"));
+        parent.add(new StubNode("android.widget.TextView", price(PRODUCTS[product][1]), "product price"));
+        parent.add(new StubNode("android.view.ViewGroup", null, "counter minus button"))
+                .onClick(() -> { quantity = Math.max(0, quantity - 1); record("Quantity " + quantity); });
+        parent.add(new StubNode("android.widget.TextView", String.valueOf(quantity), "counter amount"));
+        parent.add(new StubNode("android.view.ViewGroup", null, "counter plus button"))
+                .onClick(() -> { quantity++; record("Quantity " + quantity); });
+        parent.add(new StubNode("android.view.ViewGroup", null, "Add To Cart button")).onClick(() -> {
+            if (quantity > 0) {
+                cart.merge(product, quantity, Integer::sum);
+                changed("Added " + quantity + " x " + PRODUCTS[product][0]);
+            }
+        });
+    }
+
+    private void cartScreen(StubNode parent) {
+        parent.add(new StubNode("android.view.ViewGroup", null, "Go back")).onClick(this::back);
+        parent.add(new StubNode("android.widget.TextView", "My Cart", "container header"));
+        if (cart.isEmpty()) {
+            parent.add(new StubNode("android.widget.TextView", "No Items", null));
+            parent.add(new StubNode("android.view.ViewGroup", null, "Go Shopping button"))
+                    .onClick(() -> { openRoot(Screen.CATALOG); changed("Go shopping"); });
+            return;
+        }
+        double total = 0;
+        for (Map.Entry<Integer, Integer> line : cart.entrySet()) {
+            int item = line.getKey();
+            total += Double.parseDouble(PRODUCTS[item][1]) * line.getValue();
+            StubNode row = parent.add(new StubNode("android.view.ViewGroup", null, "product row"));
+            row.add(new StubNode("android.widget.TextView", PRODUCTS[item][0], "product label"));
+            row.add(new StubNode("android.widget.TextView", String.valueOf(line.getValue()), "counter amount"));
+            row.add(new StubNode("android.view.ViewGroup", null, "remove item"))
+                    .onClick(() -> { cart.remove(item); changed("Removed " + PRODUCTS[item][0]); });
+        }
+        parent.add(new StubNode("android.widget.TextView", price(String.format(Locale.ROOT, "%.2f", total)),
+                "total price"));
+        parent.add(new StubNode("android.view.ViewGroup", null, "Proceed To Checkout button")).onClick(() -> {
+            if (!loggedIn) {
+                open(Screen.LOGIN);
+            }
+            changed("Checkout");
+        });
+    }
+
+    private void loginScreen(StubNode parent) {
+        parent.add(new StubNode("android.widget.TextView", "Login", "container header"));
+        StubNode user = parent.add(new StubNode("android.widget.EditText", username, "Username input field"));
+        user.onInput = value -> username = value;
+        StubNode pass = parent.add(new StubNode("android.widget.EditText", mask(password), "Password input field"));
+        pass.password = true;
+        pass.onInput = value -> password = value;
+        if (loginError != null) {
+            parent.add(new StubNode("android.widget.TextView", loginError, "generic-error-message"));
+        }
+        parent.add(new StubNode("android.view.ViewGroup", null, "Login button")).onClick(this::submitLogin);
+    }
+
+    private void menu(StubNode parent) {
+        StubNode drawer = parent.add(new StubNode("android.view.ViewGroup", null, "menu drawer"));
+        drawer.overlay = true;
+        drawer.add(new StubNode("android.widget.TextView", "Catalog", "menu item catalog"))
+                .onClick(() -> { openRoot(Screen.CATALOG); changed("Catalog"); });
+        if (loggedIn) {
+            drawer.add(new StubNode("android.widget.TextView", "Log Out", "menu item log out")).onClick(() -> {
+                loggedIn = false;
+                openRoot(Screen.CATALOG);
+                changed("Logged out");
+            });
+        } else {
+            drawer.add(new StubNode("android.widget.TextView", "Log In", "menu item log in"))
+                    .onClick(() -> { open(Screen.LOGIN); changed("Login opened"); });
+        }
+    }
+
+    private void submitLogin() {
+        if (username.isEmpty()) {
+            loginError = "Username is required";
+        } else if (password.isEmpty()) {
+            loginError = "Password is required";
+        } else if (username.equals(validUsername) && password.equals(validPassword)) {
+            loggedIn = true;
+            openRoot(Screen.CATALOG);
+        } else {
+            loginError = "Sorry, the provided credentials do not match any user in this service.";
+        }
+        changed("Login submitted");
+    }
+
+    private int cartCount() {
+        int count = 0;
+        for (int units : cart.values()) {
+            count += units;
+        }
+        return count;
+    }
+
+    private static String price(String amount) {
+        return "$" + amount;
+    }
+
+    private static String mask(String value) {
+        StringBuilder masked = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            masked.append('•');
+        }
+        return masked.toString();
+    }
+}
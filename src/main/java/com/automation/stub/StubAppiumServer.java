@@ -0,0 +1,499 @@
+package com.automation.stub;
+
+import com.automation.utils.AppiumUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * In-process stand-in for an Appium server driving SauceLabs My Demo App.
+ *
+ * Speaks the subset of the W3C WebDriver / Appium protocol the framework uses
+ * (sessions, element lookup by XPath / accessibility id / UiSelector, taps,
+ * text entry, page source, screenshots, logcat, deep links and app lifecycle)
+ * against a scripted model of the catalog, product, cart, login and menu
+ * screens. Every command is delayed by stub.latency.ms +/- stub.jitter.ms,
+ * session creation by stub.latency.session.ms and installing the APK (the app
+ * capability or install_app) by stub.latency.install.ms, so framework
+ * overhead can be measured and regression-tested without an emulator. Files
+ * pushed to a device (push_file / pull_file) are kept per udid.
+ *
+ * Enabled with appium.stub.enabled=true (e.g. mvn test -Pstub), which points
+ * DriverFactory and DeviceRegistry at the shared instance.
+ */
+public class StubAppiumServer {
+
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final String BLANK_PNG =
+            "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+    private static final Json JSON = new Json();
+
+    private static StubAppiumServer shared;
+
+    static {
+        // The JDK server writes headers and body separately; without TCP_NODELAY every
+        // response stalls ~40 ms on delayed ACKs, which would swamp the configured latency
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, StubSession> sessions = new ConcurrentHashMap<>();
+    // Files pushed to the devices, keyed by udid and path
+    private final Map<String, byte[]> deviceFiles = new ConcurrentHashMap<>();
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final int sessionLatencyMillis;
+    private final int installLatencyMillis = AppiumUtils.getIntProperty("stub.latency.install.ms", 0);
+
+    private StubAppiumServer(int port, int latencyMillis, int jitterMillis, int sessionLatencyMillis) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.sessionLatencyMillis = sessionLatencyMillis;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-appium");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    // ======= LIFECYCLE =======
+
+    /** Whether runs should use the stub instead of a real Appium server. */
+    public static boolean isEnabled() {
+        return AppiumUtils.getBooleanProperty("appium.stub.enabled", false);
+    }
+
+    /** The stub shared by this JVM, started on first use with the latency settings from config. */
+    public static synchronized StubAppiumServer shared() {
+        if (shared == null) {
+            shared = start(AppiumUtils.getIntProperty("stub.port", 0),
+                    AppiumUtils.getIntProperty("stub.latency.ms", 0),
+                    AppiumUtils.getIntProperty("stub.jitter.ms", 0),
+                    AppiumUtils.getIntProperty("stub.latency.session.ms", 0));
+            System.out.println("Stub Appium server listening on " + shared.getUrl()
+                    + " (latency " + shared.latencyMillis + " +/- " + shared.jitterMillis + " ms)");
+        }
+        return shared;
+    }
+
+    /** Start a stub on the given port (0 = any free port). */
+    public static StubAppiumServer start(int port, int latencyMillis, int jitterMillis, int sessionLatencyMillis) {
+        try {
+            return new StubAppiumServer(port, latencyMillis, jitterMillis, sessionLatencyMillis);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot start stub Appium server on port " + port + ": " + e.getMessage());
+        }
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /** Run the stub standalone: StubAppiumServer [port], latency settings from config.properties. */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4723;
+        StubAppiumServer stub = start(port,
+                AppiumUtils.getIntProperty("stub.latency.ms", 0),
+                AppiumUtils.getIntProperty("stub.jitter.ms", 0),
+                AppiumUtils.getIntProperty("stub.latency.session.ms", 0));
+        System.out.println("Stub Appium server listening on " + stub.getUrl());
+        try {
+            // Server threads are daemons; keep the JVM alive until it is killed
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            stub.stop();
+        }
+    }
+
+    // ======= HTTP =======
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int status = 200;
+        Object value;
+        try {
+            String path = exchange.getRequestURI().getPath().replaceFirst("^/wd/hub", "");
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.split("/")) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            Map<String, Object> body = readBody(exchange);
+            boolean newSession = segments.size() == 1 && "session".equals(segments.get(0));
+            simulateLatency(newSession ? sessionLatencyMillis : latencyMillis);
+            value = route(exchange.getRequestMethod(), segments, body);
+        } catch (StubError e) {
+            status = e.status;
+            value = error(e.error, e.getMessage());
+        } catch (RuntimeException e) {
+            status = 500;
+            value = error("unknown error", String.valueOf(e.getMessage()));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("value", value);
+        byte[] bytes = JSON.toJson(response).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private Object route(String method, List<String> segments, Map<String, Object> body) {
+        if (segments.equals(Collections.singletonList("status"))) {
+            Map<String, Object> status = new HashMap<>();
+            status.put("ready", true);
+            status.put("message", "stub appium server");
+            return status;
+        }
+        if (segments.isEmpty() || !"session".equals(segments.get(0))) {
+            throw unknownCommand(method, segments);
+        }
+        if (segments.size() == 1 && "POST".equals(method)) {
+            return newSession(body);
+        }
+
+        StubSession session = sessions.get(segments.get(1));
+        if (session == null) {
+            throw new StubError(404, "invalid session id", "No session " + segments.get(1));
+        }
+        if (segments.size() == 2 && "DELETE".equals(method)) {
+            sessions.remove(session.id);
+            return null;
+        }
+        synchronized (session) {
+            return sessionCommand(session, method, segments.subList(2, segments.size()), body);
+        }
+    }
+
+    private Object newSession(Map<String, Object> body) {
+        Map<String, Object> requested = new HashMap<>();
+        Object capabilities = body.get("capabilities");
+        if (capabilities instanceof Map) {
+            Object alwaysMatch = ((Map<?, ?>) capabilities).get("alwaysMatch");
+            Object firstMatch = ((Map<?, ?>) capabilities).get("firstMatch");
+            if (alwaysMatch instanceof Map) {
+                ((Map<?, ?>) alwaysMatch).forEach((k, v) -> requested.put(String.valueOf(k), v));
+            }
+            if (firstMatch instanceof List && !((List<?>) firstMatch).isEmpty()
+                    && ((List<?>) firstMatch).get(0) instanceof Map) {
+                ((Map<?, ?>) ((List<?>) firstMatch).get(0)).forEach((k, v) -> requested.put(String.valueOf(k), v));
+            }
+        }
+
+        if (requested.get("appium:app") != null) {
+            simulateLatency(installLatencyMillis);
+        }
+        Object udid = requested.containsKey("appium:udid") ? requested.get("appium:udid") : requested.get("appium:deviceName");
+
+        String id = UUID.randomUUID().toString();
+        StubApp app = new StubApp(AppiumUtils.getProperty("app.package", "com.saucelabs.mydemoapp.rn"),
+                AppiumUtils.getProperty("valid.username", "bob@example.com"),
+                AppiumUtils.getProperty("valid.password", "10203040"));
+        sessions.put(id, new StubSession(id, String.valueOf(udid), app));
+
+        Map<String, Object> returned = new LinkedHashMap<>(requested);
+        returned.put("platformName", "Android");
+        returned.putIfAbsent("appium:automationName", "UiAutomator2");
+        Map<String, Object> value = new HashMap<>();
+        value.put("sessionId", id);
+        value.put("capabilities", returned);
+        return value;
+    }
+
+    // ======= COMMANDS =======
+
+    private Object sessionCommand(StubSession session, String method, List<String> command, Map<String, Object> body) {
+        String first = command.isEmpty() ? "" : command.get(0);
+        switch (first) {
+            case "":
+                return new HashMap<String, Object>();
+            case "timeouts":
+                return "GET".equals(method) ? timeouts() : null;
+            case "element":
+            case "elements":
+                return elementCommand(session, method, command, body);
+            case "source":
+                return session.pageSource();
+            case "screenshot":
+                return BLANK_PNG;
+            case "back":
+                session.app.back();
+                session.changed();
+                return null;
+            case "execute":
+                return executeScript(session, body);
+            case "appium":
+                return appiumCommand(session, command, body);
+            case "se":
+                return logs(session, command);
+            default:
+                throw unknownCommand(method, command);
+        }
+    }
+
+    private Object elementCommand(StubSession session, String method, List<String> command, Map<String, Object> body) {
+        // POST element(s) -> lookup in the whole tree
+        if (command.size() == 1) {
+            return lookup(session, "elements".equals(command.get(0)), body, null);
+        }
+        StubNode node = session.resolve(command.get(1));
+        String action = command.size() > 2 ? command.get(2) : "";
+        switch (action) {
+            case "element":
+                return lookup(session, false, body, node);
+            case "elements":
+                return lookup(session, true, body, node);
+            case "click":
+                session.click(node);
+                return null;
+            case "value":
+                session.type(node, textOf(body));
+                return null;
+            case "clear":
+                session.clear(node);
+                return null;
+            case "text":
+                return node.text;
+            case "displayed":
+                return node.isDisplayed();
+            case "enabled":
+                return true;
+            case "selected":
+                return false;
+            case "name":
+                return node.className;
+            case "attribute":
+                return command.size() > 3 ? node.attribute(command.get(3)) : null;
+            case "rect":
+                Map<String, Object> rect = new HashMap<>();
+                rect.put("x", 0);
+                rect.put("y", node.top);
+                rect.put("width", 1080);
+                rect.put("height", StubNode.ROW_HEIGHT);
+                return rect;
+            default:
+                throw unknownCommand(method, command);
+        }
+    }
+
+    private Object lookup(StubSession session, boolean all, Map<String, Object> body, StubNode scope) {
+        String using = String.valueOf(body.get("using"));
+        String value = String.valueOf(body.get("value"));
+        List<StubNode> found = session.find(using, value, scope);
+        if (all) {
+            List<Object> references = new ArrayList<>(found.size());
+            for (StubNode node : found) {
+                references.add(reference(session, node));
+            }
+            return references;
+        }
+        if (found.isEmpty()) {
+            throw new StubError(404, "no such element",
+                    "An element could not be located on the page using the given search parameters (" + using + "=" + value + ")");
+        }
+        return reference(session, found.get(0));
+    }
+
+    private Object executeScript(StubSession session, Map<String, Object> body) {
+        String script = String.valueOf(body.get("script")).trim();
+        Map<String, Object> args = firstArgument(body);
+        StubApp app = session.app;
+        try {
+            switch (script) {
+                case "mobile: deepLink":
+                    app.deepLink(String.valueOf(args.get("url")));
+                    break;
+                case "mobile: clearApp":
+                    app.clearData();
+                    break;
+                case "mobile: terminateApp":
+                    session.changed();
+                    return app.terminate();
+                case "mobile: activateApp":
+                    app.activate();
+                    break;
+                case "mobile: queryAppState":
+                    return app.appState();
+                default:
+                    throw new StubError(500, "unsupported operation", "Script '" + script + "' is not supported by the stub");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            throw new StubError(500, "unknown error", e.getMessage());
+        }
+        session.changed();
+        return null;
+    }
+
+    private Object appiumCommand(StubSession session, List<String> command, Map<String, Object> body) {
+        String action = command.size() > 2 && "device".equals(command.get(1)) ? command.get(2) : "";
+        StubApp app = session.app;
+        session.changed();
+        try {
+            switch (action) {
+                case "app_state":
+                    return app.appState();
+                case "terminate_app":
+                    return app.terminate();
+                case "activate_app":
+                    app.activate();
+                    return null;
+                case "remove_app":
+                    app.remove();
+                    return true;
+                case "install_app":
+                    simulateLatency(installLatencyMillis);
+                    app.install();
+                    return null;
+                case "app_installed":
+                case "is_app_installed":
+                    return app.isInstalled();
+                case "push_file":
+                    deviceFiles.put(session.udid + ":" + body.get("path"),
+                            Base64.getDecoder().decode(String.valueOf(body.get("data"))));
+                    return null;
+                case "pull_file":
+                    byte[] data = deviceFiles.get(session.udid + ":" + body.get("path"));
+                    if (data == null) {
+                        throw new StubError(500, "unknown error", "Remote path " + body.get("path") + " does not exist");
+                    }
+                    return Base64.getEncoder().encodeToString(data);
+                default:
+                    throw unknownCommand("POST", command);
+            }
+        } catch (IllegalStateException e) {
+            throw new StubError(500, "unknown error", e.getMessage());
+        }
+    }
+
+    private Object logs(StubSession session, List<String> command) {
+        if (command.size() > 2 && "types".equals(command.get(2))) {
+            return Arrays.asList("logcat", "server");
+        }
+        List<Object> entries = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String line : session.app.drainLog()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("timestamp", now);
+            entry.put("level", "INFO");
+            entry.put("message", "I/ActivityManager: " + line);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // ======= HELPERS =======
+
+    private void simulateLatency(int baseMillis) {
+        int millis = baseMillis;
+        if (jitterMillis > 0) {
+            millis += ThreadLocalRandom.current().nextInt(-jitterMillis, jitterMillis + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readAllBytes();
+            if (bytes.length == 0) {
+                return Collections.emptyMap();
+            }
+            Map<String, Object> body = JSON.toType(new String(bytes, StandardCharsets.UTF_8), Json.MAP_TYPE);
+            return body == null ? Collections.emptyMap() : body;
+        }
+    }
+
+    private static Map<String, Object> timeouts() {
+        Map<String, Object> timeouts = new HashMap<>();
+        timeouts.put("implicit", 0);
+        timeouts.put("pageLoad", 300000);
+        timeouts.put("script", 30000);
+        return timeouts;
+    }
+
+    private static Map<String, Object> reference(StubSession session, StubNode node) {
+        String id = session.elementId(node);
+        Map<String, Object> reference = new HashMap<>();
+        reference.put(ELEMENT_KEY, id);
+        reference.put("ELEMENT", id);
+        return reference;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> firstArgument(Map<String, Object> body) {
+        Object args = body.get("args");
+        if (args instanceof List && !((List<?>) args).isEmpty() && ((List<?>) args).get(0) instanceof Map) {
+            return (Map<String, Object>) ((List<?>) args).get(0);
+        }
+        return Collections.emptyMap();
+    }
+
+    private static String textOf(Map<String, Object> body) {
+        Object text = body.get("text");
+        if (text != null) {
+            return String.valueOf(text);
+        }
+        StringBuilder joined = new StringBuilder();
+        Object value = body.get("value");
+        if (value instanceof List) {
+            for (Object part : (List<?>) value) {
+                joined.append(part);
+            }
+        }
+        return joined.toString();
+    }
+
+    private static Map<String, Object> error(String error, String message) {
+        Map<String, Object> value = new HashMap<>();
+        value.put("error", error);
+        value.put("message", message);
+        value.put("stacktrace", "");
+        return value;
+    }
+
+    private static StubError unknownCommand(String method, List<String> segments) {
+        return new StubError(404, "unknown command", "The stub does not implement " + method + " /" + String.join("/", segments));
+    }
+}
@@ -0,0 +1,16 @@
+package com.automation.stub;
+
+/**
+ * A W3C WebDriver error the stub server returns to the client.
+ */
+class StubError extends RuntimeException {
+
+    final int status;
+    final String error;
+
+    StubError(int status, String error, String message) {
+        super(message);
+        this.status = status;
+        this.error = error;
+    }
+}
@@ -0,0 +1,175 @@
+package com.automation.stub;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One view of a scripted screen. Nodes are rebuilt from the app state on every
+ * change and carry the behaviour of the view (tap, text entry) as callbacks.
+ * Nodes are laid out as stacked rows on a fixed-height screen; rows below it,
+ * and views covered by an overlay (the open menu), are not displayed.
+ */
+final class StubNode {
+
+    static final int ROW_HEIGHT = 120;
+    static final int SCREEN_HEIGHT = 2400;
+
+    final String className;
+    final String text;
+    final String contentDesc;
+    final List<StubNode> children = new ArrayList<>();
+
+    boolean password;
+    // Covered by an overlay; applies to the whole subtree
+    boolean hidden;
+    // Drawn from the top of the screen over the other views (e.g. the menu drawer)
+    boolean overlay;
+    Runnable onClick;
+    Consumer<String> onInput;
+
+    // Pre-order position inside the rendered tree; part of the element id
+    int index;
+    int top;
+
+    StubNode(String className, String text, String contentDesc) {
+        this.className = className;
+        this.text = text == null ? "" : text;
+        this.contentDesc = contentDesc == null ? "" : contentDesc;
+    }
+
+    StubNode add(StubNode child) {
+        children.add(child);
+        return child;
+    }
+
+    StubNode onClick(Runnable action) {
+        this.onClick = action;
+        return this;
+    }
+
+    String bounds() {
+        return "[0," + top + "][1080," + (top + ROW_HEIGHT) + "]";
+    }
+
+    /** Whether the view is on screen and not covered, as UiAutomator2 reports it. */
+    boolean isDisplayed() {
+        return !hidden && top + ROW_HEIGHT <= SCREEN_HEIGHT;
+    }
+
+    /** Number nodes in document order and lay them out as stacked rows. */
+    void layout(List<StubNode> flat) {
+        layout(flat, new int[1], false);
+    }
+
+    private void layout(List<StubNode> flat, int[] row, boolean coveredParent) {
+        index = flat.size();
+        if (overlay) {
+            row = new int[1];
+        }
+        top = row[0]++ * ROW_HEIGHT;
+        hidden |= coveredParent;
+        flat.add(this);
+        for (StubNode child : children) {
+            child.layout(flat, row, hidden);
+        }
+    }
+
+    // ======= RENDERING =======
+
+    /** Write the node the way UiAutomator2 prints it in the page source. */
+    void appendXml(StringBuilder xml, String appPackage, int siblingIndex) {
+        xml.append('<').append(className);
+        for (String[] attribute : attributes(appPackage, siblingIndex)) {
+            xml.append(' ').append(attribute[0]).append("=\"").append(escape(attribute[1])).append('"');
+        }
+        if (children.isEmpty()) {
+            xml.append("/>");
+            return;
+        }
+        xml.append('>');
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).appendXml(xml, appPackage, i);
+        }
+        xml.append("</").append(className).append('>');
+    }
+
+    /** Mirror the node into a DOM element so XPath locators can be evaluated against it. */
+    Element toDom(Document document, String appPackage, int siblingIndex) {
+        Element element = document.createElement(className);
+        for (String[] attribute : attributes(appPackage, siblingIndex)) {
+            element.setAttribute(attribute[0], attribute[1]);
+        }
+        element.setUserData("node", this, null);
+        for (int i = 0; i < children.size(); i++) {
+            element.appendChild(children.get(i).toDom(document, appPackage, i));
+        }
+        return element;
+    }
+
+    String attribute(String name) {
+        switch (name) {
+            case "text":
+                return text;
+            case "content-desc":
+            case "contentDescription":
+                return contentDesc;
+            case "class":
+            case "className":
+                return className;
+            case "displayed":
+                return String.valueOf(isDisplayed());
+            case "enabled":
+                return "true";
+            case "clickable":
+                return String.valueOf(onClick != null);
+            case "password":
+                return String.valueOf(password);
+            case "bounds":
+                return bounds();
+            default:
+                return null;
+        }
+    }
+
+    private String[][] attributes(String appPackage, int siblingIndex) {
+        boolean clickable = onClick != null || onInput != null;
+        return new String[][]{
+                {"index", String.valueOf(siblingIndex)},
+                {"package", appPackage},
+                {"class", className},
+                {"text", text},
+                {"content-desc", contentDesc},
+                {"resource-id", ""},
+                {"checkable", "false"},
+                {"checked", "false"},
+                {"clickable", String.valueOf(clickable)},
+                {"enabled", "true"},
+                {"focusable", String.valueOf(clickable)},
+                {"focused", "false"},
+                {"long-clickable", "false"},
+                {"password", String.valueOf(password)},
+                {"scrollable", "false"},
+                {"selected", "false"},
+                {"bounds", bounds()},
+                {"displayed", String.valueOf(isDisplayed())}
+        };
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '<': escaped.append("&lt;"); break;
+                case '>': escaped.append("&gt;"); break;
+                case '&': escaped.append("&amp;"); break;
+                case '"': escaped.append("&quot;"); break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
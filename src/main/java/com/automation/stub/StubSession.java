@@ -0,0 +1,257 @@
+package com.automation.stub;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One fake Appium session: the scripted app plus element lookup over its
+ * current view tree. Element ids encode the structure version they were found
+ * in, so ids from a previous screen fail with "stale element reference" like
+ * they would on a device. Callers synchronize on the session.
+ */
+final class StubSession {
+
+    private static final DocumentBuilderFactory DOCUMENTS = DocumentBuilderFactory.newInstance();
+    private static final ThreadLocal<XPath> XPATHS = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+    private static final Pattern UI_SELECTOR_CALL = Pattern.compile("\\.(\\w+)\\(\"((?:[^\"\\\\]|\\\\.)*)\"\\)");
+
+    final String id;
+    final String udid;
+    final StubApp app;
+
+    private StubNode root;
+    private List<StubNode> nodes;
+    private Document document;
+    private int renderedVersion = -1;
+    private boolean dirty = true;
+
+    StubSession(String id, String udid, StubApp app) {
+        this.id = id;
+        this.udid = udid;
+        this.app = app;
+    }
+
+    // ======= ELEMENTS =======
+
+    /** Nodes matching a W3C/Appium locator, searched below the given node (null = whole tree). */
+    List<StubNode> find(String using, String value, StubNode scope) {
+        refresh();
+        switch (using) {
+            case "xpath":
+                return xpath(value, scope);
+            case "accessibility id":
+                return filter(scope, node -> node.contentDesc.equals(value));
+            case "class name":
+                return filter(scope, node -> node.className.equals(value));
+            case "id":
+                return Collections.emptyList();
+            case "-android uiautomator":
+                return xpath(uiSelectorToXpath(value), scope);
+            default:
+                throw new StubError(400, "invalid argument", "Locator strategy '" + using + "' is not supported");
+        }
+    }
+
+    String elementId(StubNode node) {
+        return renderedVersion + "-" + node.index;
+    }
+
+    StubNode resolve(String elementId) {
+        refresh();
+        int dash = elementId.indexOf('-');
+        try {
+            int version = Integer.parseInt(elementId.substring(0, dash));
+            int index = Integer.parseInt(elementId.substring(dash + 1));
+            if (version == renderedVersion && index < nodes.size()) {
+                return nodes.get(index);
+            }
+        } catch (RuntimeException e) {
+            // fall through to stale
+        }
+        throw new StubError(404, "stale element reference", "Element " + elementId + " is no longer attached to the view");
+    }
+
+    void click(StubNode node) {
+        if (node.onClick != null) {
+            node.onClick.run();
+        }
+        dirty = true;
+    }
+
+    void type(StubNode node, String text) {
+        if (node.onInput == null) {
+            throw new StubError(400, "invalid element state", "Element does not accept text input");
+        }
+        node.onInput.accept(node.password ? text : node.text + text);
+        dirty = true;
+    }
+
+    void clear(StubNode node) {
+        if (node.onInput != null) {
+            node.onInput.accept("");
+        }
+        dirty = true;
+    }
+
+    /** Mark the tree for rebuilding after a change that did not go through a node. */
+    void changed() {
+        dirty = true;
+    }
+
+    String pageSource() {
+        refresh();
+        StringBuilder xml = new StringBuilder(8192);
+        xml.append("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>");
+        xml.append("<hierarchy index=\"0\" class=\"hierarchy\" rotation=\"0\" width=\"1080\" height=\"2280\">");
+        for (int i = 0; i < root.children.size(); i++) {
+            root.children.get(i).appendXml(xml, app.appPackage(), i);
+        }
+        return xml.append("</hierarchy>").toString();
+    }
+
+    // ======= HELPERS =======
+
+    private void refresh() {
+        if (!dirty && renderedVersion == app.structureVersion()) {
+            return;
+        }
+        root = app.render();
+        nodes = new ArrayList<>();
+        root.layout(nodes);
+        document = null;
+        renderedVersion = app.structureVersion();
+        dirty = false;
+    }
+
+    private List<StubNode> xpath(String expression, StubNode scope) {
+        Document dom = dom();
+        Object context = scope == null ? dom : findDomNode(dom, scope);
+        try {
+            NodeList matches = (NodeList) XPATHS.get().evaluate(expression, context, XPathConstants.NODESET);
+            List<StubNode> result = new ArrayList<>(matches.getLength());
+            for (int i = 0; i < matches.getLength(); i++) {
+                Object node = matches.item(i).getUserData("node");
+                if (node != null && node != root) {
+                    result.add((StubNode) node);
+                }
+            }
+            return result;
+        } catch (XPathExpressionException e) {
+            throw new StubError(400, "invalid selector", "Invalid XPath '" + expression + "': " + e.getMessage());
+        }
+    }
+
+    private Document dom() {
+        if (document == null) {
+            try {
+                document = DOCUMENTS.newDocumentBuilder().newDocument();
+            } catch (ParserConfigurationException e) {
+                throw new RuntimeException("Cannot create DOM for stub hierarchy: " + e.getMessage());
+            }
+            document.appendChild(root.toDom(document, app.appPackage(), 0));
+        }
+        return document;
+    }
+
+    private static org.w3c.dom.Node findDomNode(org.w3c.dom.Node dom, StubNode target) {
+        if (dom.getUserData("node") == target) {
+            return dom;
+        }
+        for (org.w3c.dom.Node child = dom.getFirstChild(); child != null; child = child.getNextSibling()) {
+            org.w3c.dom.Node found = findDomNode(child, target);
+            if (found != null) {
+                return found;
+            }
+        }
+        return null;
+    }
+
+    private List<StubNode> filter(StubNode scope, java.util.function.Predicate<StubNode> predicate) {
+        List<StubNode> result = new ArrayList<>();
+        List<StubNode> candidates = scope == null ? nodes : subtree(scope);
+        for (StubNode node : candidates) {
+            if (node != root && node != scope && predicate.test(node)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private static List<StubNode> subtree(StubNode scope) {
+        List<StubNode> result = new ArrayList<>();
+        collect(scope, result);
+        return result;
+    }
+
+    private static void collect(StubNode node, List<StubNode> into) {
+        into.add(node);
+        for (StubNode child : node.children) {
+            collect(child, into);
+        }
+    }
+
+    /** Translate the UiSelector subset the framework emits into an equivalent XPath. */
+    static String uiSelectorToXpath(String selector) {
+        String tag = "*";
+        List<String> predicates = new ArrayList<>();
+        Matcher call = UI_SELECTOR_CALL.matcher(selector);
+        while (call.find()) {
+            String value = call.group(2).replace("\\\"", "\"").replace("\\\\", "\\");
+            switch (call.group(1)) {
+                case "className":
+                    tag = value;
+                    break;
+                case "text":
+                    predicates.add("@text=" + literal(value));
+                    break;
+                case "textContains":
+                    predicates.add("contains(@text," + literal(value) + ")");
+                    break;
+                case "textStartsWith":
+                    predicates.add("starts-with(@text," + literal(value) + ")");
+                    break;
+                case "description":
+                    predicates.add("@content-desc=" + literal(value));
+                    break;
+                case "descriptionContains":
+                    predicates.add("contains(@content-desc," + literal(value) + ")");
+                    break;
+                case "descriptionStartsWith":
+                    predicates.add("starts-with(@content-desc," + literal(value) + ")");
+                    break;
+                case "resourceId":
+                    predicates.add("@resource-id=" + literal(value));
+                    break;
+                default:
+                    throw new StubError(400, "invalid selector", "UiSelector method " + call.group(1) + " is not supported");
+            }
+        }
+        StringBuilder xpath = new StringBuilder(".//").append(tag);
+        for (String predicate : predicates) {
+            xpath.append('[').append(predicate).append(']');
+        }
+        return xpath.toString();
+    }
+
+    private static String literal(String value) {
+        if (!value.contains("'")) {
+            return "'" + value + "'";
+        }
+        if (!value.contains("\"")) {
+            return "\"" + value + "\"";
+        }
+        return "concat('" + value.replace("'", "',\"'\",'") + "')";
+    }
+}
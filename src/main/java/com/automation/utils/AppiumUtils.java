@@ -22,8 +22,38 @@ public class AppiumUtils {
         return properties;
     }
 
-    // Get a specific property value
+    // Get a specific property value; a -Dkey=value system property overrides the file
     public static String getProperty(String key) {
-        return getProperties().getProperty(key);
+        String override = System.getProperty(key);
+        return override != null ? override : getProperties().getProperty(key);
+    }
+
+    // Get a property value, falling back to a default when the key is missing
+    public static String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    // Get an integer property value, falling back to a default when missing or invalid
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid value '" + value + "' for " + key + ", defaulting to " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    // Get a boolean property value, falling back to a default when missing
+    public static boolean getBooleanProperty(String key, boolean defaultValue) {
+        String value = getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
     }
 }
@@ -0,0 +1,296 @@
+package com.automation.utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lazily streams the rows of a CSV (header line first) or JSONL file as
+ * {@code Object[]{Map<String, String>}}, the shape a TestNG data provider returns.
+ *
+ * The file is memory-mapped a window at a time and only the row being handed
+ * out is decoded, so a dataset of millions of rows costs one window of page
+ * cache, not heap. Rows can be sharded (row number modulo shard count) so
+ * several workers or JVMs split one file without coordination. The iterator is
+ * safe to share between threads; the file is closed once it is exhausted.
+ */
+public class DataRows implements Iterator<Object[]>, Closeable {
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final Path file;
+    private final boolean csv;
+    private final FileChannel channel;
+    private final long size;
+    private final int shardIndex;
+    private final int shardCount;
+    private final long maxRows;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long rowNumber;
+    private long returned;
+    private List<String> header;
+    private Object[] next;
+    private boolean closed;
+
+    private DataRows(Path file, int shardIndex, int shardCount, long maxRows, int windowBytes) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        if (!name.endsWith(".csv") && !name.endsWith(".jsonl") && !name.endsWith(".ndjson")) {
+            throw new IllegalArgumentException("Unsupported data file " + file + " (expected .csv, .jsonl or .ndjson)");
+        }
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("Invalid shard " + shardIndex + " of " + shardCount);
+        }
+        this.file = file;
+        this.csv = name.endsWith(".csv");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.shardIndex = shardIndex;
+        this.shardCount = shardCount;
+        this.maxRows = maxRows;
+        this.windowBytes = windowBytes;
+    }
+
+    /** Every row of the file. */
+    public static DataRows open(Path file) {
+        return open(file, 0, 1, 0);
+    }
+
+    /**
+     * Rows whose number modulo shardCount is shardIndex, at most maxRows of
+     * them (0 = no limit). The window size comes from data.map.window.kb.
+     */
+    public static DataRows open(Path file, int shardIndex, int shardCount, long maxRows) {
+        int windowBytes = Math.max(4, AppiumUtils.getIntProperty("data.map.window.kb", 8192)) * 1024;
+        try {
+            return new DataRows(file, shardIndex, shardCount, maxRows, windowBytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open data file " + file + ": " + e.getMessage());
+        }
+    }
+
+    // ======= ITERATOR =======
+
+    @Override
+    public boolean hasNext() {
+        lock.lock();
+        try {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Object[] next() {
+        lock.lock();
+        try {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more rows in " + file);
+            }
+            Object[] row = next;
+            next = null;
+            return row;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                window = null;
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot close data file " + file + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The next row of this shard, or null (and the file closed) at the end. */
+    private Object[] advance() {
+        if (closed) {
+            return null;
+        }
+        try {
+            if (position == 0) {
+                skipBom();
+                if (csv) {
+                    String line = readRecord(true);
+                    header = line == null ? Collections.emptyList() : parseCsv(line);
+                }
+            }
+            while (maxRows <= 0 || returned < maxRows) {
+                boolean mine = rowNumber % shardCount == shardIndex;
+                String record = readRecord(mine);
+                if (record == null) {
+                    break;
+                }
+                rowNumber++;
+                if (mine) {
+                    returned++;
+                    return new Object[]{csv ? csvRow(record) : jsonRow(record)};
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Cannot read data file " + file, e);
+        }
+        close();
+        return null;
+    }
+
+    // ======= RECORDS =======
+
+    /**
+     * Next non-blank record, decoded only when wanted (skipped rows are just
+     * scanned for their end). CSV records may span lines inside quotes.
+     */
+    private String readRecord(boolean decode) throws IOException {
+        while (position < size) {
+            long start = position;
+            long end = scanRecordEnd(start);
+            position = end < size ? end + 1 : size;
+            long length = end - start;
+            if (length > 0 && byteAt(end - 1) == '\r') {
+                length--;
+            }
+            if (length == 0 || isBlank(start, length)) {
+                continue;
+            }
+            return decode ? decode(start, (int) length) : "";
+        }
+        return null;
+    }
+
+    /** Absolute offset of the newline ending the record at start (or the file size). */
+    private long scanRecordEnd(long start) throws IOException {
+        boolean quoted = false;
+        for (long offset = start; offset < size; offset++) {
+            byte b = byteAt(offset);
+            if (csv && b == '"') {
+                quoted = !quoted;
+            } else if (b == '\n' && !quoted) {
+                return offset;
+            }
+        }
+        return size;
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            map(offset);
+        }
+        return window.get((int) (offset - windowStart));
+    }
+
+    private void map(long offset) throws IOException {
+        windowStart = offset;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowBytes, size - offset));
+    }
+
+    private String decode(long start, int length) throws IOException {
+        if (start < windowStart || start + length > windowStart + window.limit()) {
+            // Record crosses the window: remap so it starts the window, growing it for huge records
+            windowBytes = Math.max(windowBytes, length);
+            map(start);
+        }
+        byte[] bytes = new byte[length];
+        window.position((int) (start - windowStart));
+        window.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean isBlank(long start, long length) throws IOException {
+        for (long offset = start; offset < start + length; offset++) {
+            byte b = byteAt(offset);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipBom() throws IOException {
+        if (size >= UTF8_BOM.length && byteAt(0) == UTF8_BOM[0] && byteAt(1) == UTF8_BOM[1]
+                && byteAt(2) == UTF8_BOM[2]) {
+            position = UTF8_BOM.length;
+        }
+    }
+
+    // ======= PARSING =======
+
+    private Map<String, String> csvRow(String record) {
+        List<String> values = parseCsv(record);
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), i < values.size() ? values.get(i) : "");
+        }
+        return row;
+    }
+
+    private Map<String, String> jsonRow(String record) {
+        Map<String, Object> parsed = new Json().toType(record, Json.MAP_TYPE);
+        Map<String, String> row = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : parsed.entrySet()) {
+            row.put(entry.getKey(), entry.getValue() == null ? "" : String.valueOf(entry.getValue()));
+        }
+        return row;
+    }
+
+    /** RFC 4180 fields: commas separate, quotes wrap, doubled quotes escape. */
+    static List<String> parseCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
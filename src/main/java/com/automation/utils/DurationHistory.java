@@ -0,0 +1,73 @@
+package com.automation.utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Durations measured in earlier runs, keyed by e.g. "com.automation.tests.LoginTests#tc01".
+ * Each new measurement is blended into the stored value with an exponentially
+ * weighted moving average, so one slow run does not dominate the next schedule.
+ */
+public class DurationHistory {
+
+    private final Path file;
+    private final double alpha;
+    private final Map<String, Double> millis = new TreeMap<>();
+
+    private DurationHistory(Path file, double alpha) {
+        this.file = file;
+        this.alpha = alpha;
+    }
+
+    /** Read the history file; a missing or unreadable file gives an empty history. */
+    public static DurationHistory load(Path file, double alpha) {
+        DurationHistory history = new DurationHistory(file, alpha);
+        if (Files.isRegularFile(file)) {
+            try {
+                Map<String, Object> stored = new Json().toType(
+                        new String(Files.readAllBytes(file), StandardCharsets.UTF_8), Json.MAP_TYPE);
+                for (Map.Entry<String, Object> entry : stored.entrySet()) {
+                    if (entry.getValue() instanceof Number) {
+                        history.millis.put(entry.getKey(), ((Number) entry.getValue()).doubleValue());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Ignoring unreadable duration history " + file + ": " + e.getMessage());
+            }
+        }
+        return history;
+    }
+
+    public synchronized boolean contains(String key) {
+        return millis.containsKey(key);
+    }
+
+    /** Expected duration in milliseconds, or the fallback for keys never measured. */
+    public synchronized double estimate(String key, double fallbackMillis) {
+        Double value = millis.get(key);
+        return value == null ? fallbackMillis : value;
+    }
+
+    /** Blend a new measurement into the history. */
+    public synchronized void record(String key, double measuredMillis) {
+        Double previous = millis.get(key);
+        millis.put(key, previous == null ? measuredMillis : alpha * measuredMillis + (1 - alpha) * previous);
+    }
+
+    public synchronized void save() {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Map<String, Object> rounded = new TreeMap<>();
+            millis.forEach((key, value) -> rounded.put(key, Math.round(value)));
+            Files.write(file, new Json().toJson(rounded).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Cannot write duration history to " + file + ": " + e.getMessage());
+        }
+    }
+}
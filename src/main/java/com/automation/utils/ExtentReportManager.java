@@ -1,69 +1,123 @@
 package com.automation.utils;
 
-import com.aventstack.extentreports.ExtentReports;
-import com.aventstack.extentreports.ExtentTest;
-import com.aventstack.extentreports.reporter.ExtentSparkReporter;
-import com.aventstack.extentreports.reporter.configuration.Theme;
-import org.testng.ITestContext;
+import com.automation.base.AppInstaller;
+import com.automation.base.BaseTest;
+import com.automation.base.DurationBalancer;
+import com.automation.base.SessionPool;
+import com.automation.pages.ElementCache;
+import com.automation.pages.WaitEngine;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
+import java.nio.file.Paths;
+
 /**
  * ExtentReports Test Listener for generating HTML test reports.
  * Implements TestNG ITestListener to capture test execution events.
  * 
  * Reports are generated at: test-output/ExtentReport.html
+ * Latency percentiles are exported to: test-output/latency-metrics.json
+ * Failure screenshots, page sources and logs go to: test-output/artifacts/
+ * 
+ * The report is suite-scoped: one {@link ReportPipeline} per run, fed
+ * asynchronously so test threads never wait on report I/O.
  * 
  * Bonus Feature: Automated HTML test report generation.
  */
-public class ExtentReportManager implements ITestListener {
+public class ExtentReportManager implements ITestListener, ISuiteListener {
 
-    private static ExtentReports extent;
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<>();
+    private static final String TEST_ID = "report.testId";
 
     @Override
-    public void onStart(ITestContext context) {
-        ExtentSparkReporter spark = new ExtentSparkReporter("test-output/ExtentReport.html");
-        spark.config().setTheme(Theme.STANDARD);
-        spark.config().setDocumentTitle("Mobile Automation Test Report");
-        spark.config().setReportName("SauceLabs My Demo App - Test Results");
-
-        extent = new ExtentReports();
-        extent.attachReporter(spark);
-        extent.setSystemInfo("App", "SauceLabs My Demo App");
-        extent.setSystemInfo("Platform", "Android");
-        extent.setSystemInfo("Framework", "Appium + TestNG");
-        extent.setSystemInfo("Java Version", System.getProperty("java.version"));
+    public void onStart(ISuite suite) {
+        ReportPipeline.start();
     }
 
     @Override
     public void onTestStart(ITestResult result) {
-        ExtentTest extentTest = extent.createTest(
+        long testId = ReportPipeline.startTest(
                 result.getMethod().getMethodName(),
                 result.getMethod().getDescription()
         );
-        test.set(extentTest);
+        result.setAttribute(TEST_ID, testId);
+        WaitEngine.resetWaitedTime();
     }
 
     @Override
     public void onTestSuccess(ITestResult result) {
-        test.get().pass("Test PASSED: " + result.getMethod().getMethodName());
+        ReportPipeline.log(testId(result), Status.PASS, "Test PASSED: " + result.getMethod().getMethodName());
+        logWaitTime(result);
     }
 
     @Override
     public void onTestFailure(ITestResult result) {
-        test.get().fail("Test FAILED: " + result.getThrowable().getMessage());
+        ReportPipeline.log(testId(result), Status.FAIL, "Test FAILED: " + result.getThrowable().getMessage());
+        logWaitTime(result);
+        if (result.getInstance() instanceof BaseTest) {
+            FailureArtifacts.capture(((BaseTest) result.getInstance()).getDriver(), testId(result));
+        }
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
-        test.get().skip("Test SKIPPED: " + result.getMethod().getMethodName());
+        ReportPipeline.log(testId(result), Status.SKIP, "Test SKIPPED: " + result.getMethod().getMethodName());
     }
 
     @Override
-    public void onFinish(ITestContext context) {
-        if (extent != null) {
-            extent.flush();
+    public void onFinish(ISuite suite) {
+        if (LatencyMetrics.isEnabled()) {
+            LatencyMetrics.export(Paths.get("test-output", "latency-metrics.json"));
+            long metricsId = ReportPipeline.startTest("Latency Metrics",
+                    "Per-command, per-locator and per-page-method latency percentiles");
+            for (String category : new String[]{LatencyMetrics.PAGE, LatencyMetrics.COMMAND,
+                    LatencyMetrics.LOCATOR, LatencyMetrics.RESET, LatencyMetrics.FIXTURE}) {
+                ReportPipeline.log(metricsId, Status.INFO, MarkupHelper.createTable(LatencyMetrics.toTable(category)));
+            }
+        }
+        if (ElementCache.isEnabled()) {
+            System.out.println("Element cache: " + ElementCache.hits() + " hits, " + ElementCache.misses()
+                    + " misses, " + ElementCache.staleRefinds() + " stale re-finds");
+            long cacheId = ReportPipeline.startTest("Element Cache",
+                    "Element handle cache hits, misses and stale re-finds");
+            ReportPipeline.log(cacheId, Status.INFO, MarkupHelper.createTable(ElementCache.toTable()));
+        }
+        if (SessionPool.isPrewarmEnabled()) {
+            System.out.println("Session startup hidden behind tests: " + SessionPool.hiddenMillis() + " ms");
+            long sessionsId = ReportPipeline.startTest("Session Pre-warming",
+                    "Session startup overlapped with test execution vs waited for");
+            ReportPipeline.log(sessionsId, Status.INFO, MarkupHelper.createTable(SessionPool.toTable()));
+        }
+        if (AppInstaller.isEnabled()) {
+            System.out.println("APK installs: " + AppInstaller.installs() + ", skipped: " + AppInstaller.skipped());
+            long installId = ReportPipeline.startTest("APK Install Cache",
+                    "Sessions that reused the installed build vs installs");
+            ReportPipeline.log(installId, Status.INFO, MarkupHelper.createTable(AppInstaller.toTable()));
         }
+        if (DurationBalancer.isActive()) {
+            long scheduleId = ReportPipeline.startTest("Schedule",
+                    "Predicted vs actual worker utilisation of the balanced schedule");
+            ReportPipeline.log(scheduleId, Status.INFO, MarkupHelper.createTable(DurationBalancer.toTable()));
+        }
+        FailureArtifacts.awaitPending();
+        ReportPipeline.stop();
+    }
+
+    /** Report entry of the result; skipped configurations may never have started one. */
+    private long testId(ITestResult result) {
+        Object id = result.getAttribute(TEST_ID);
+        if (id == null) {
+            id = ReportPipeline.startTest(result.getMethod().getMethodName(), result.getMethod().getDescription());
+            result.setAttribute(TEST_ID, id);
+        }
+        return (Long) id;
+    }
+
+    /** Record how long the test spent inside explicit waits. */
+    private void logWaitTime(ITestResult result) {
+        ReportPipeline.log(testId(result), Status.INFO, "Time spent waiting: " + WaitEngine.getWaitedMillis() + " ms");
     }
 }
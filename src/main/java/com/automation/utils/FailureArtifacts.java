@@ -0,0 +1,228 @@
+package com.automation.utils;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.logging.LogEntry;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Captures a screenshot, the page source and recent logcat lines when a test fails.
+ *
+ * Only the driver calls happen on the test thread (they must, before the next
+ * test changes the screen). Base64 decoding, hashing, gzip and disk writes run
+ * on a background executor. Files are named by their SHA-256, so a screen that
+ * fails repeatedly is stored once and every failure links the same file.
+ *
+ * Artifacts are written under test-output/artifacts/ and attached to the report.
+ * Shard runners, which have no report of their own, forward the stored paths
+ * with the result instead ({@link #captureFiles}).
+ */
+public class FailureArtifacts {
+
+    public static final String SCREENSHOT = "screenshot";
+    public static final String PAGE_SOURCE = "source";
+    public static final String LOGS = "logcat";
+
+    private static final Path ROOT = Paths.get("test-output", "artifacts");
+    private static final Set<String> writtenFiles = ConcurrentHashMap.newKeySet();
+
+    private static ExecutorService executor;
+
+    private FailureArtifacts() {
+    }
+
+    /** Grab the raw artifacts from the driver and attach them to the report once written. */
+    public static void capture(RemoteWebDriver driver, long reportTestId) {
+        captureFiles(driver).thenAccept(files -> {
+            if (files.containsKey(SCREENSHOT)) {
+                ReportPipeline.submit(w -> w.test(reportTestId)
+                        .addScreenCaptureFromPath(files.get(SCREENSHOT), "Screenshot at failure"));
+            }
+            if (files.containsKey(PAGE_SOURCE)) {
+                ReportPipeline.submit(w -> w.test(reportTestId)
+                        .info(link(files.get(PAGE_SOURCE), "Page source at failure")));
+            }
+            if (files.containsKey(LOGS)) {
+                ReportPipeline.submit(w -> w.test(reportTestId).info(link(files.get(LOGS), "Recent logcat")));
+            }
+        });
+    }
+
+    /**
+     * Grab the raw artifacts from the driver and hand them to the background
+     * writer. Completes with the stored files (SCREENSHOT, PAGE_SOURCE, LOGS),
+     * relative to test-output/; empty when capture is off or nothing was stored.
+     */
+    public static CompletableFuture<Map<String, String>> captureFiles(RemoteWebDriver driver) {
+        if (driver == null || driver.getSessionId() == null
+                || !AppiumUtils.getBooleanProperty("artifacts.enabled", true)) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        String screenshot = quietly(() -> driver.getScreenshotAs(OutputType.BASE64));
+        String pageSource = quietly(driver::getPageSource);
+        List<String> logs = quietly(() -> recentLogs(driver));
+
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, String> files = new LinkedHashMap<>();
+            try {
+                if (screenshot != null) {
+                    files.put(SCREENSHOT, relativeToReport(
+                            store(Base64.getMimeDecoder().decode(screenshot), "screenshots", ".png", false)));
+                }
+                if (pageSource != null) {
+                    files.put(PAGE_SOURCE, relativeToReport(
+                            store(pageSource.getBytes(StandardCharsets.UTF_8), "sources", ".xml.gz", true)));
+                }
+                if (logs != null && !logs.isEmpty()) {
+                    files.put(LOGS, relativeToReport(store(String.join("\n", logs).getBytes(StandardCharsets.UTF_8),
+                            "logs", ".log.gz", true)));
+                }
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Cannot store failure artifacts: " + e.getMessage());
+            }
+            return files;
+        }, executor());
+    }
+
+    /** Wait for queued artifact writes, typically just before the final report flush. */
+    public static void awaitPending() {
+        ExecutorService pending;
+        synchronized (FailureArtifacts.class) {
+            pending = executor;
+            executor = null;
+        }
+        if (pending == null) {
+            return;
+        }
+        pending.shutdown();
+        try {
+            pending.awaitTermination(60, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ======= HELPERS =======
+
+    private static synchronized ExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(AppiumUtils.getIntProperty("artifacts.writer.threads", 2), r -> {
+                Thread thread = new Thread(r, "artifact-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    private static List<String> recentLogs(RemoteWebDriver driver) {
+        int lines = AppiumUtils.getIntProperty("artifacts.log.lines", 200);
+        if (lines <= 0) {
+            return new ArrayList<>();
+        }
+        ArrayDeque<String> result = new ArrayDeque<>(lines + 1);
+        for (LogEntry entry : driver.manage().logs().get("logcat")) {
+            result.addLast(entry.toString());
+            if (result.size() > lines) {
+                result.pollFirst();
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Write content-addressed data once; returns the file path. Data goes to a
+     * temp file that is renamed into place, so an existing file is always
+     * complete and a failed write leaves nothing behind under the final name.
+     */
+    private static String store(byte[] data, String folder, String extension, boolean gzip) throws IOException {
+        String hash = sha256(data);
+        Path file = ROOT.resolve(folder).resolve(hash + extension);
+        if (writtenFiles.contains(file.toString())) {
+            return file.toString();
+        }
+        if (!Files.exists(file)) {
+            // Same content stored by an earlier run otherwise
+            Files.createDirectories(file.getParent());
+            byte[] bytes = gzip ? gzip(data) : data;
+            Path temp = Files.createTempFile(file.getParent(), hash, ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        writtenFiles.add(file.toString());
+        return file.toString();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** The report lives in test-output/, so links are relative to that folder. */
+    private static String relativeToReport(String file) {
+        return Paths.get("test-output").toAbsolutePath().relativize(Paths.get(file).toAbsolutePath())
+                .toString().replace('\\', '/');
+    }
+
+    private static String link(String relativeFile, String label) {
+        return "<a href='" + relativeFile + "' target='_blank'>" + label + "</a>";
+    }
+
+    private static <T> T quietly(java.util.concurrent.Callable<T> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
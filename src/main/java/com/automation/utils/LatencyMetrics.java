@@ -0,0 +1,122 @@
+package com.automation.utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Run-wide registry of latency histograms, grouped by category:
+ * "command" (WebDriver command), "locator" (find by strategy and value)
+ * "page" (page object method, e.g. LoginPage.login), "reset" (app reset strategy)
+ * and "fixture" (precondition established, checked or reused, e.g. "LOGGED_IN reused").
+ *
+ * Exported to test-output/latency-metrics.json and summarised in the
+ * ExtentReport at the end of the suite.
+ */
+public class LatencyMetrics {
+
+    public static final String COMMAND = "command";
+    public static final String LOCATOR = "locator";
+    public static final String PAGE = "page";
+    public static final String RESET = "reset";
+    public static final String FIXTURE = "fixture";
+
+    private static final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    private LatencyMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return AppiumUtils.getBooleanProperty("metrics.enabled", true);
+    }
+
+    /** Record one timed call. */
+    public static void record(String category, String name, long nanos) {
+        histograms.computeIfAbsent(category, c -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> new LatencyHistogram())
+                .record(nanos);
+    }
+
+    /** Histograms of a category, most total time first. */
+    public static List<Map.Entry<String, LatencyHistogram>> snapshot(String category) {
+        List<Map.Entry<String, LatencyHistogram>> entries =
+                new ArrayList<>(histograms.getOrDefault(category, Map.of()).entrySet());
+        entries.sort(Comparator.comparingDouble(
+                (Map.Entry<String, LatencyHistogram> e) -> e.getValue().getTotalMillis()).reversed());
+        return entries;
+    }
+
+    /** Percentile summary of every histogram as a JSON-friendly map. */
+    public static Map<String, Object> summary() {
+        Map<String, Object> result = new TreeMap<>();
+        for (String category : histograms.keySet()) {
+            Map<String, Object> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, LatencyHistogram> entry : snapshot(category)) {
+                entries.put(entry.getKey(), describe(entry.getValue()));
+            }
+            result.put(category, entries);
+        }
+        return result;
+    }
+
+    /** Write the summary as JSON. */
+    public static void export(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, new Json().toJson(summary()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.out.println("Cannot write latency metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Table rows (name, count, mean, p50, p95, p99, max) for a category. */
+    public static String[][] toTable(String category) {
+        List<Map.Entry<String, LatencyHistogram>> entries = snapshot(category);
+        String[][] rows = new String[entries.size() + 1][];
+        rows[0] = new String[]{category, "count", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"};
+        for (int i = 0; i < entries.size(); i++) {
+            LatencyHistogram h = entries.get(i).getValue();
+            rows[i + 1] = new String[]{entries.get(i).getKey(), String.valueOf(h.getCount()),
+                    format(h.getMeanMillis()), format(h.getPercentileMillis(50)),
+                    format(h.getPercentileMillis(95)), format(h.getPercentileMillis(99)),
+                    format(h.getMaxMillis())};
+        }
+        return rows;
+    }
+
+    /** Clear all histograms. */
+    public static void reset() {
+        histograms.clear();
+    }
+
+    private static Map<String, Object> describe(LatencyHistogram h) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", h.getCount());
+        stats.put("totalMs", round(h.getTotalMillis()));
+        stats.put("meanMs", round(h.getMeanMillis()));
+        stats.put("p50Ms", round(h.getPercentileMillis(50)));
+        stats.put("p90Ms", round(h.getPercentileMillis(90)));
+        stats.put("p95Ms", round(h.getPercentileMillis(95)));
+        stats.put("p99Ms", round(h.getPercentileMillis(99)));
+        stats.put("maxMs", round(h.getMaxMillis()));
+        return stats;
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    private static String format(double millis) {
+        return String.format("%.1f", millis);
+    }
+}
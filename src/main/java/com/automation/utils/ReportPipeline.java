@@ -0,0 +1,195 @@
+package com.automation.utils;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.markuputils.Markup;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.configuration.Theme;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Suite-scoped, asynchronous front end to ExtentReports.
+ *
+ * There is exactly one ExtentReports instance per run. Test threads only
+ * append events to a lock-free queue; a dedicated writer thread applies them
+ * to the report and flushes the HTML every report.flush.interval seconds, so
+ * even a crashed run leaves a usable report behind. ExtentTest objects are
+ * only ever touched by the writer thread. Start and stop use a lock rather
+ * than synchronized because creating the report touches the disk, which
+ * would pin a virtual thread to its carrier.
+ */
+public class ReportPipeline {
+
+    private static final ConcurrentLinkedQueue<Consumer<Writer>> events = new ConcurrentLinkedQueue<>();
+    private static final AtomicLong nextTestId = new AtomicLong();
+    private static final ReentrantLock lifecycle = new ReentrantLock();
+
+    private static Thread writerThread;
+    private static volatile boolean running;
+    private static boolean shutdownHookAdded;
+
+    private ReportPipeline() {
+    }
+
+    /**
+     * Create the report and start the writer thread. Safe to call more than
+     * once. With report.extent.enabled=false nothing is started and events
+     * are dropped; the HTML can be rendered from the results store instead.
+     */
+    public static void start() {
+        if (!AppiumUtils.getBooleanProperty("report.extent.enabled", true)) {
+            return;
+        }
+        lifecycle.lock();
+        try {
+            if (writerThread != null) {
+                return;
+            }
+            Writer writer = new Writer(createReport());
+            running = true;
+            writerThread = new Thread(writer, "report-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            if (!shutdownHookAdded) {
+                // A run that dies before onFinish still gets its final flush
+                Runtime.getRuntime().addShutdownHook(new Thread(ReportPipeline::stop, "report-writer-shutdown"));
+                shutdownHookAdded = true;
+            }
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    /** Drain every pending event, write the final report and stop the writer thread. */
+    public static void stop() {
+        Thread thread;
+        lifecycle.lock();
+        try {
+            thread = writerThread;
+            writerThread = null;
+        } finally {
+            lifecycle.unlock();
+        }
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ======= EVENTS (called from test threads, never block) =======
+
+    /** Register a new report entry and return its id. */
+    public static long startTest(String name, String description) {
+        long id = nextTestId.incrementAndGet();
+        submit(w -> w.tests.put(id, w.extent.createTest(name, description)));
+        return id;
+    }
+
+    public static void log(long testId, Status status, String message) {
+        submit(w -> w.test(testId).log(status, message));
+    }
+
+    public static void log(long testId, Status status, Markup markup) {
+        submit(w -> w.test(testId).log(status, markup));
+    }
+
+    /** Queue an arbitrary report update to run on the writer thread. */
+    public static void submit(Consumer<Writer> event) {
+        if (running) {
+            events.offer(event);
+        }
+    }
+
+    // ======= WRITER =======
+
+    private static ExtentReports createReport() {
+        ExtentSparkReporter spark = new ExtentSparkReporter("test-output/ExtentReport.html");
+        spark.config().setTheme(Theme.STANDARD);
+        spark.config().setDocumentTitle("Mobile Automation Test Report");
+        spark.config().setReportName("SauceLabs My Demo App - Test Results");
+
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(spark);
+        extent.setSystemInfo("App", "SauceLabs My Demo App");
+        extent.setSystemInfo("Platform", "Android");
+        extent.setSystemInfo("Framework", "Appium + TestNG");
+        extent.setSystemInfo("Java Version", System.getProperty("java.version"));
+        return extent;
+    }
+
+    /** State owned by the writer thread. */
+    public static final class Writer implements Runnable {
+
+        private final ExtentReports extent;
+        private final Map<Long, ExtentTest> tests = new HashMap<>();
+
+        private Writer(ExtentReports extent) {
+            this.extent = extent;
+        }
+
+        public ExtentReports getExtent() {
+            return extent;
+        }
+
+        /** Entry for the id, or a placeholder if the test was never registered. */
+        public ExtentTest test(long testId) {
+            return tests.computeIfAbsent(testId, id -> extent.createTest("Unregistered test #" + id));
+        }
+
+        @Override
+        public void run() {
+            long flushIntervalNanos = TimeUnit.SECONDS.toNanos(
+                    AppiumUtils.getIntProperty("report.flush.interval", 5));
+            long lastFlush = System.nanoTime();
+            boolean dirty = false;
+            while (running) {
+                dirty |= drain();
+                if (dirty && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                    flush();
+                    lastFlush = System.nanoTime();
+                    dirty = false;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+            drain();
+            flush();
+        }
+
+        private boolean drain() {
+            boolean applied = false;
+            Consumer<Writer> event;
+            while ((event = events.poll()) != null) {
+                try {
+                    event.accept(this);
+                } catch (RuntimeException e) {
+                    System.out.println("Report event failed: " + e.getMessage());
+                }
+                applied = true;
+            }
+            return applied;
+        }
+
+        private void flush() {
+            try {
+                extent.flush();
+            } catch (RuntimeException e) {
+                System.out.println("Report flush failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package com.automation.utils;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Queries over the runs in the {@link ResultStore}: pass rate, flakiness and
+ * duration trend per test, and totals per run.
+ *
+ * Run files are streamed line by line, oldest first, so memory grows with the
+ * number of distinct tests and runs, never with the number of results. A test
+ * counts once per run (data-driven rows and repeated invocations are folded:
+ * any failure fails it, durations add up). Flakiness is the share of
+ * consecutive runs in which the test flipped between pass and fail; the trend
+ * compares the mean duration of the newer half of the last trend window with
+ * the older half.
+ *
+ * Also a CLI, e.g. for the last 50 runs with an HTML report:
+ * <pre>java -cp ... com.automation.utils.ResultHistory --runs 50 --html test-output/results-report.html</pre>
+ */
+public class ResultHistory {
+
+    private static final int TREND_WINDOW = 10;
+    private static final int MAX_PASSED_ROWS = 1000;
+    // Folding order within a run: any failure fails the test
+    private static final String[] STATUSES = {"PASS", "SKIP", "FAIL"};
+
+    private final List<RunSummary> runs = new ArrayList<>();
+    private final Map<String, TestStats> tests = new TreeMap<>();
+    private Path latestRun;
+
+    private ResultHistory() {
+    }
+
+    // ======= SCANNING =======
+
+    public static boolean isRunFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("run-") && name.endsWith(".ndjson");
+    }
+
+    /** Run files of the store, oldest first. */
+    public static List<Path> runFiles(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(ResultHistory::isRunFile).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list results store " + directory, e);
+        }
+    }
+
+    /**
+     * Aggregate the newest lastRuns runs (0 = all) of the store, keeping tests
+     * whose name contains testFilter (null = all).
+     */
+    public static ResultHistory scan(Path directory, int lastRuns, String testFilter) {
+        ResultHistory history = new ResultHistory();
+        List<Path> files = runFiles(directory);
+        if (lastRuns > 0 && files.size() > lastRuns) {
+            files = files.subList(files.size() - lastRuns, files.size());
+        }
+        for (Path file : files) {
+            history.scanRun(file, testFilter);
+            history.latestRun = file;
+        }
+        return history;
+    }
+
+    private void scanRun(Path file, String testFilter) {
+        Json json = new Json();
+        RunSummary run = new RunSummary(file.getFileName().toString().replaceAll("^run-|\\.ndjson$", ""));
+        // Outcome of each test in this run: [status rank, total ms]
+        Map<String, long[]> outcomes = new HashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> record;
+                try {
+                    record = json.toType(line, Json.MAP_TYPE);
+                } catch (RuntimeException e) {
+                    // A run killed mid-write may end with a partial line
+                    continue;
+                }
+                String type = String.valueOf(record.get("type"));
+                if ("run".equals(type)) {
+                    run.start = number(record.get("start"));
+                } else if ("end".equals(type)) {
+                    run.millis = number(record.get("ms"));
+                    run.complete = true;
+                } else if ("test".equals(type)) {
+                    String status = String.valueOf(record.get("status"));
+                    run.count(status);
+                    String test = String.valueOf(record.get("test"));
+                    if (testFilter == null || test.contains(testFilter)) {
+                        long[] outcome = outcomes.computeIfAbsent(test, t -> new long[]{-1, 0});
+                        outcome[0] = Math.max(outcome[0], rank(status));
+                        outcome[1] += number(record.get("ms"));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Skipping unreadable run file " + file + ": " + e.getMessage());
+            return;
+        }
+        runs.add(run);
+        outcomes.forEach((test, outcome) ->
+                tests.computeIfAbsent(test, TestStats::new).add(STATUSES[(int) outcome[0]], outcome[1]));
+    }
+
+    // ======= RESULTS =======
+
+    /** Runs, oldest first. */
+    public List<RunSummary> runs() {
+        return runs;
+    }
+
+    /** Tests, flakiest first, then lowest pass rate. */
+    public List<TestStats> tests() {
+        List<TestStats> sorted = new ArrayList<>(tests.values());
+        sorted.sort(Comparator.comparingDouble(TestStats::flakiness).reversed()
+                .thenComparingDouble(TestStats::passRate)
+                .thenComparing(TestStats::getName));
+        return sorted;
+    }
+
+    public TestStats test(String name) {
+        return tests.get(name);
+    }
+
+    /** Rows (run, started, ms, passed, failed, skipped) for the runs, newest first. */
+    public String[][] runsTable() {
+        String[][] rows = new String[runs.size() + 1][];
+        rows[0] = new String[]{"run", "started", "ms", "passed", "failed", "skipped"};
+        for (int i = 0; i < runs.size(); i++) {
+            RunSummary run = runs.get(runs.size() - 1 - i);
+            rows[i + 1] = new String[]{run.id, run.start > 0 ? formatTime(run.start) : "-",
+                    run.complete ? String.valueOf(run.millis) : "incomplete",
+                    String.valueOf(run.passed), String.valueOf(run.failed), String.valueOf(run.skipped)};
+        }
+        return rows;
+    }
+
+    /** Rows (test, runs, pass rate, flakiness, mean ms, trend, last) in {@link #tests()} order. */
+    public String[][] testsTable() {
+        List<TestStats> sorted = tests();
+        String[][] rows = new String[sorted.size() + 1][];
+        rows[0] = new String[]{"test", "runs", "pass rate", "flakiness", "mean ms", "trend", "last"};
+        for (int i = 0; i < sorted.size(); i++) {
+            TestStats test = sorted.get(i);
+            double trend = test.trendPercent();
+            rows[i + 1] = new String[]{test.name, String.valueOf(test.runs),
+                    String.format("%.1f%%", 100 * test.passRate()), String.format("%.1f%%", 100 * test.flakiness()),
+                    String.valueOf(Math.round(test.meanMillis())),
+                    Double.isNaN(trend) ? "-" : String.format("%+.1f%%", trend), test.last};
+        }
+        return rows;
+    }
+
+    // ======= HTML =======
+
+    /** Write a standalone HTML report: run history, test history and the results of the latest run. */
+    public void writeHtml(Path file) {
+        try {
+            if (file.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+            }
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Test Results History</title>"
+                        + "<style>body{font-family:sans-serif;margin:24px}table{border-collapse:collapse;margin-bottom:24px}"
+                        + "td,th{border:1px solid #ccc;padding:4px 8px;text-align:left}th{background:#f0f0f0}"
+                        + ".PASS{color:#2e7d32}.FAIL{color:#c62828}.SKIP{color:#f9a825}</style></head><body>\n");
+                out.write("<h1>Test Results History</h1>\n");
+                if (latestRun != null) {
+                    out.write("<h2>Latest run " + escape(runs.get(runs.size() - 1).id) + "</h2>\n");
+                    writeRunResults(out, latestRun);
+                }
+                out.write("<h2>Tests over " + runs.size() + " runs</h2>\n");
+                writeTable(out, testsTable());
+                out.write("<h2>Runs</h2>\n");
+                writeTable(out, runsTable());
+                out.write("</body></html>\n");
+            }
+            System.out.println("Results report written to " + file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write results report " + file, e);
+        }
+    }
+
+    /**
+     * Stream the run's results into a table without holding them in memory:
+     * every failure and skip, and the first MAX_PASSED_ROWS passes.
+     */
+    private static void writeRunResults(BufferedWriter out, Path run) throws IOException {
+        Json json = new Json();
+        int passedRows = 0;
+        int omitted = 0;
+        out.write("<table><tr><th>test</th><th>parameters</th><th>status</th><th>ms</th><th>device</th>"
+                + "<th>error</th></tr>\n");
+        try (BufferedReader in = Files.newBufferedReader(run, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.contains("\"type\": \"test\"") && !line.contains("\"type\":\"test\"")) {
+                    continue;
+                }
+                Map<String, Object> record;
+                try {
+                    record = json.toType(line, Json.MAP_TYPE);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                String status = String.valueOf(record.get("status"));
+                if ("PASS".equals(status) && ++passedRows > MAX_PASSED_ROWS) {
+                    omitted++;
+                    continue;
+                }
+                out.write("<tr><td>" + cell(record.get("test")) + "</td><td>" + cell(record.get("params"))
+                        + "</td><td class=\"" + escape(status) + "\">" + escape(status)
+                        + "</td><td>" + cell(record.get("ms")) + "</td><td>" + cell(record.get("device"))
+                        + "</td><td>" + cell(record.get("error")) + artifactLinks(record.get("artifacts"))
+                        + "</td></tr>\n");
+            }
+        }
+        out.write("</table>\n");
+        if (omitted > 0) {
+            out.write("<p>" + omitted + " more passed results omitted.</p>\n");
+        }
+    }
+
+    private static void writeTable(BufferedWriter out, String[][] rows) throws IOException {
+        out.write("<table>");
+        for (int i = 0; i < rows.length; i++) {
+            out.write("<tr>");
+            for (String value : rows[i]) {
+                String tag = i == 0 ? "th" : "td";
+                String css = i > 0 && ("PASS".equals(value) || "FAIL".equals(value) || "SKIP".equals(value))
+                        ? " class=\"" + value + "\"" : "";
+                out.write("<" + tag + css + ">" + escape(value) + "</" + tag + ">");
+            }
+            out.write("</tr>\n");
+        }
+        out.write("</table>\n");
+    }
+
+    // ======= CLI =======
+
+    /**
+     * ResultHistory [--dir results.store.dir] [--runs N] [--test text] [--html file]:
+     * print run and test history, optionally writing the HTML report too.
+     */
+    public static void main(String[] args) {
+        Path directory = ResultStore.directory();
+        int lastRuns = 0;
+        String filter = null;
+        Path html = null;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--dir":
+                    directory = Paths.get(value);
+                    i++;
+                    break;
+                case "--runs":
+                    lastRuns = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "--test":
+                    filter = value;
+                    i++;
+                    break;
+                case "--html":
+                    html = Paths.get(value != null ? value : "test-output/results-report.html");
+                    i++;
+                    break;
+                default:
+                    System.out.println("Usage: ResultHistory [--dir DIR] [--runs N] [--test TEXT] [--html FILE]");
+                    System.exit(2);
+            }
+        }
+        ResultHistory history = scan(directory, lastRuns, filter);
+        if (history.runs.isEmpty()) {
+            System.out.println("No runs in " + directory);
+            return;
+        }
+        System.out.println(format(history.runsTable()));
+        System.out.println(format(history.testsTable()));
+        if (html != null) {
+            history.writeHtml(html);
+        }
+    }
+
+    /** Rows as space-padded columns. */
+    static String format(String[][] rows) {
+        int[] widths = new int[rows[0].length];
+        for (String[] row : rows) {
+            for (int c = 0; c < row.length; c++) {
+                widths[c] = Math.max(widths[c], row[c].length());
+            }
+        }
+        StringBuilder text = new StringBuilder();
+        for (String[] row : rows) {
+            for (int c = 0; c < row.length; c++) {
+                text.append(String.format("%-" + (widths[c] + 2) + "s", row[c]));
+            }
+            text.setLength(text.length() - 2);
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    // ======= HELPERS =======
+
+    private static int rank(String status) {
+        return "FAIL".equals(status) ? 2 : "SKIP".equals(status) ? 1 : 0;
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    private static String formatTime(long millis) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(millis));
+    }
+
+    /** Links to failure artifacts forwarded by shard runners, relative to test-output/ like the report. */
+    private static String artifactLinks(Object artifacts) {
+        if (!(artifacts instanceof Map)) {
+            return "";
+        }
+        StringBuilder links = new StringBuilder();
+        for (Map.Entry<?, ?> file : ((Map<?, ?>) artifacts).entrySet()) {
+            links.append(" <a href=\"").append(escape(String.valueOf(file.getValue()))).append("\">")
+                    .append(escape(String.valueOf(file.getKey()))).append("</a>");
+        }
+        return links.toString();
+    }
+
+    private static String cell(Object value) {
+        return value == null ? "" : escape(String.valueOf(value));
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /** Totals of one run. */
+    public static final class RunSummary {
+
+        private final String id;
+        private long start;
+        private long millis;
+        private boolean complete;
+        private int passed;
+        private int failed;
+        private int skipped;
+
+        private RunSummary(String id) {
+            this.id = id;
+        }
+
+        private void count(String status) {
+            if ("PASS".equals(status)) {
+                passed++;
+            } else if ("FAIL".equals(status)) {
+                failed++;
+            } else {
+                skipped++;
+            }
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public int getPassed() {
+            return passed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        /** False if the run died before writing its end line. */
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    /** History of one test method across runs. */
+    public static final class TestStats {
+
+        private final String name;
+        private int runs;
+        private int passed;
+        private int failed;
+        private int flips;
+        private String last = "-";
+        private String lastDecided;
+        private long totalMillis;
+        // Durations of the last TREND_WINDOW runs, oldest first once full
+        private final long[] recent = new long[TREND_WINDOW];
+        private int recentCount;
+
+        private TestStats(String name) {
+            this.name = name;
+        }
+
+        private void add(String status, long millis) {
+            runs++;
+            last = status;
+            if ("SKIP".equals(status)) {
+                return;
+            }
+            if ("PASS".equals(status)) {
+                passed++;
+            } else {
+                failed++;
+            }
+            if (lastDecided != null && !lastDecided.equals(status)) {
+                flips++;
+            }
+            lastDecided = status;
+            totalMillis += millis;
+            recent[recentCount % TREND_WINDOW] = millis;
+            recentCount++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRuns() {
+            return runs;
+        }
+
+        /** Passed share of the runs in which the test ran (skips excluded). */
+        public double passRate() {
+            int decided = passed + failed;
+            return decided == 0 ? 0 : (double) passed / decided;
+        }
+
+        /** Share of consecutive runs in which the outcome flipped between pass and fail. */
+        public double flakiness() {
+            int decided = passed + failed;
+            return decided < 2 ? 0 : (double) flips / (decided - 1);
+        }
+
+        public double meanMillis() {
+            int decided = passed + failed;
+            return decided == 0 ? 0 : (double) totalMillis / decided;
+        }
+
+        /** Percent change of the newer half of the trend window over the older half; NaN with under 4 runs. */
+        public double trendPercent() {
+            int size = Math.min(recentCount, TREND_WINDOW);
+            if (size < 4) {
+                return Double.NaN;
+            }
+            int oldest = recentCount - size;
+            double older = 0;
+            double newer = 0;
+            int half = size / 2;
+            for (int i = 0; i < size; i++) {
+                long millis = recent[(oldest + i) % TREND_WINDOW];
+                if (i < half) {
+                    older += millis;
+                } else if (i >= size - half) {
+                    newer += millis;
+                }
+            }
+            return older == 0 ? Double.NaN : 100 * (newer - older) / older;
+        }
+    }
+}
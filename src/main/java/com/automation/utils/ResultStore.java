@@ -0,0 +1,233 @@
+package com.automation.utils;
+
+import com.automation.base.BaseTest;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of test results, one NDJSON file per run under
+ * results.store.dir (run-&lt;start time&gt;-&lt;pid&gt;.ndjson).
+ *
+ * Every finished test is appended and flushed as one line the moment it
+ * ends, so memory stays constant however large the suite is and a crashed
+ * run keeps everything recorded so far. A run starts with a "run" line and
+ * ends with an "end" line carrying its totals. Only the newest
+ * results.store.keep.runs files are kept. {@link ResultHistory} queries the
+ * files across runs and renders HTML from them.
+ */
+public class ResultStore implements ITestListener, ISuiteListener {
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final LongAdder passed = new LongAdder();
+    private static final LongAdder failed = new LongAdder();
+    private static final LongAdder skipped = new LongAdder();
+
+    private static volatile BufferedWriter out;
+    private static Path file;
+    private static String runId;
+    private static long runStart;
+
+    public static boolean isEnabled() {
+        return AppiumUtils.getBooleanProperty("results.store.enabled", true);
+    }
+
+    public static Path directory() {
+        return Paths.get(AppiumUtils.getProperty("results.store.dir", "test-output/results"));
+    }
+
+    // ======= LISTENER =======
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (isEnabled()) {
+            begin(suite.getName());
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        write(toRecord(result, "PASS"));
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        write(toRecord(result, "FAIL"));
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        write(toRecord(result, "SKIP"));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        finish();
+    }
+
+    // ======= WRITING =======
+
+    /** Open a new run file and write its "run" line. Does nothing if a run is already open. */
+    public static void begin(String suiteName) {
+        lock.lock();
+        try {
+            if (out != null) {
+                return;
+            }
+            runStart = System.currentTimeMillis();
+            runId = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date(runStart))
+                    + "-" + ProcessHandle.current().pid();
+            Path directory = directory();
+            Files.createDirectories(directory);
+            pruneOldRuns(directory);
+            file = directory.resolve("run-" + runId + ".ndjson");
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("type", "run");
+            run.put("run", runId);
+            run.put("suite", suiteName);
+            run.put("start", runStart);
+            run.put("host", hostName());
+            run.put("java", System.getProperty("java.version"));
+            append(run);
+        } catch (IOException e) {
+            System.out.println("Cannot open results store: " + e.getMessage());
+            out = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The "test" record of a finished result, as appended to the store. */
+    public static Map<String, Object> toRecord(ITestResult result, String status) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "test");
+        line.put("run", runId);
+        line.put("test", result.getTestClass().getRealClass().getName() + "#" + result.getMethod().getMethodName());
+        Object[] parameters = result.getParameters();
+        if (parameters != null && parameters.length > 0) {
+            line.put("params", truncate(Arrays.deepToString(parameters), 200));
+        }
+        line.put("status", status);
+        line.put("start", result.getStartMillis());
+        line.put("ms", Math.max(0, result.getEndMillis() - result.getStartMillis()));
+        Object instance = result.getInstance();
+        if (instance instanceof BaseTest && ((BaseTest) instance).getDevice() != null) {
+            line.put("device", ((BaseTest) instance).getDevice().getUdid());
+        }
+        line.put("thread", Thread.currentThread().getName());
+        Throwable error = result.getThrowable();
+        if (error != null) {
+            line.put("error", truncate(error.getClass().getSimpleName() + ": " + error.getMessage(), 500));
+        }
+        return line;
+    }
+
+    /** Append a "test" record to the open run (e.g. one received from a shard runner). */
+    public static void write(Map<String, Object> record) {
+        if (out == null) {
+            return;
+        }
+        Object status = record.get("status");
+        if ("PASS".equals(status)) {
+            passed.increment();
+        } else if ("FAIL".equals(status)) {
+            failed.increment();
+        } else {
+            skipped.increment();
+        }
+        lock.lock();
+        try {
+            if (out != null) {
+                record.put("run", runId);
+                append(record);
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot append to results store " + file + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Write the "end" line with the run's totals and close the run file. */
+    public static Path finish() {
+        lock.lock();
+        try {
+            if (out == null) {
+                return null;
+            }
+            Map<String, Object> end = new LinkedHashMap<>();
+            end.put("type", "end");
+            end.put("run", runId);
+            end.put("end", System.currentTimeMillis());
+            end.put("ms", System.currentTimeMillis() - runStart);
+            end.put("passed", passed.sum());
+            end.put("failed", failed.sum());
+            end.put("skipped", skipped.sum());
+            append(end);
+            out.close();
+            System.out.println("Results appended to " + file + " (query with " + ResultHistory.class.getName() + ")");
+            return file;
+        } catch (IOException e) {
+            System.out.println("Cannot close results store: " + e.getMessage());
+            return null;
+        } finally {
+            out = null;
+            lock.unlock();
+        }
+    }
+
+    /** One compact JSON line, flushed so a killed run keeps it. */
+    private static void append(Map<String, Object> record) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        try (JsonOutput json = new Json().newOutput(line)) {
+            json.setPrettyPrint(false);
+            json.write(record);
+        }
+        out.write(line.append('\n').toString());
+        out.flush();
+    }
+
+    private static void pruneOldRuns(Path directory) throws IOException {
+        int keep = Math.max(1, AppiumUtils.getIntProperty("results.store.keep.runs", 500));
+        List<Path> runs;
+        try (Stream<Path> files = Files.list(directory)) {
+            runs = files.filter(ResultHistory::isRunFile).sorted().collect(Collectors.toList());
+        }
+        // The new run takes one of the kept slots
+        for (int i = 0; i <= runs.size() - keep; i++) {
+            Files.deleteIfExists(runs.get(i));
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max) + "...";
+    }
+
+    private static String hostName() {
+        String host = System.getenv("HOSTNAME");
+        return host != null ? host : System.getProperty("os.name");
+    }
+}
@@ -0,0 +1,47 @@
+package com.automation.utils;
+
+import com.automation.base.WorkQueueRunner;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+
+import java.nio.file.Paths;
+
+/**
+ * Records every test and configuration method (session lease, app reset,
+ * preconditions, teardown) as a span of the {@link Tracer} timeline, and
+ * writes the trace when the suite finishes. A shard runner runs one suite
+ * per work item and writes its trace once, on exit.
+ */
+public class TraceListener implements IInvokedMethodListener, ISuiteListener {
+
+    private static final String START = "trace.start";
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult result) {
+        if (Tracer.isEnabled()) {
+            result.setAttribute(START, Tracer.start());
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        Object start = result.getAttribute(START);
+        if (start instanceof Long) {
+            ITestNGMethod testMethod = method.getTestMethod();
+            Tracer.end(method.isTestMethod() ? Tracer.TEST : Tracer.CONFIG,
+                    testMethod.getRealClass().getSimpleName() + "." + testMethod.getMethodName(), (Long) start);
+            result.removeAttribute(START);
+        }
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (Tracer.isEnabled() && !WorkQueueRunner.isActive()) {
+            Tracer.export(Paths.get("test-output"));
+        }
+    }
+}
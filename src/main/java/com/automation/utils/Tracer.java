@@ -0,0 +1,295 @@
+package com.automation.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Run-wide timeline of spans: TestNG tests and configuration methods, page
+ * object methods, driver commands and session startup, each with its thread
+ * and device.
+ *
+ * Every thread records into its own preallocated ring buffer
+ * (trace.buffer.events spans, the oldest overwritten when full), so recording
+ * a span is a few array stores with no locking or allocation. Spans are stored
+ * when they end; nesting follows from their times on the same thread. At the
+ * end of the run the buffers are written to test-output/trace.json in Chrome
+ * trace-event format (chrome://tracing, ui.perfetto.dev) or, with
+ * trace.format=otlp, as OTLP/JSON (test-output/trace-otlp.json). Timestamps
+ * are wall-clock based so traces of several JVMs line up.
+ */
+public class Tracer {
+
+    public static final String TEST = "test";
+    public static final String CONFIG = "config";
+    public static final String PAGE = "page";
+    public static final String COMMAND = "command";
+    public static final String SESSION = "session";
+
+    private static final boolean ENABLED = AppiumUtils.getBooleanProperty("trace.enabled", true);
+    private static final int CAPACITY = Integer.highestOneBit(
+            Math.max(1024, AppiumUtils.getIntProperty("trace.buffer.events", 16384)));
+
+    // Wall clock at a nanoTime origin, so spans can be recorded with nanoTime only
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final long ORIGIN_EPOCH_NANOS = System.currentTimeMillis() * 1_000_000L;
+
+    private static final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Buffer> buffer = ThreadLocal.withInitial(Tracer::newBuffer);
+    private static final ThreadLocal<String> device = new ThreadLocal<>();
+
+    private Tracer() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // ======= RECORDING =======
+
+    /** Start time of a span, to be passed to {@link #end}. */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /** Record a span of the current thread, attributed to the thread's device. */
+    public static void end(String category, String name, long startNanos) {
+        if (ENABLED) {
+            buffer.get().add(category, name, device.get(), startNanos, System.nanoTime());
+        }
+    }
+
+    /** Record a span of the current thread on behalf of the given device. */
+    public static void end(String category, String name, long startNanos, String deviceId) {
+        if (ENABLED) {
+            buffer.get().add(category, name, deviceId, startNanos, System.nanoTime());
+        }
+    }
+
+    /** Attribute the current thread's following spans to a device (null when it has none). */
+    public static void setDevice(String deviceId) {
+        if (ENABLED) {
+            device.set(deviceId);
+        }
+    }
+
+    private static Buffer newBuffer() {
+        Buffer created = new Buffer(Thread.currentThread());
+        buffers.add(created);
+        return created;
+    }
+
+    // ======= EXPORT =======
+
+    /** Write the trace in the configured format (trace.format = chrome or otlp) under the directory. */
+    public static Path export(Path directory) {
+        boolean otlp = "otlp".equalsIgnoreCase(AppiumUtils.getProperty("trace.format", "chrome").trim());
+        Path file = directory.resolve(otlp ? "trace-otlp.json" : "trace.json");
+        List<Span> spans = spans();
+        try {
+            Files.createDirectories(directory);
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                if (otlp) {
+                    writeOtlp(out, spans);
+                } else {
+                    writeChrome(out, spans);
+                }
+            }
+            long dropped = dropped();
+            System.out.println("Trace with " + spans.size() + " spans written to " + file
+                    + (dropped > 0 ? " (" + dropped + " oldest spans overwritten, raise trace.buffer.events)" : ""));
+        } catch (IOException e) {
+            System.out.println("Cannot write trace to " + file + ": " + e.getMessage());
+        }
+        return file;
+    }
+
+    /** Spans overwritten because a thread's buffer was full. */
+    public static long dropped() {
+        long dropped = 0;
+        for (Buffer b : buffers) {
+            dropped += Math.max(0, b.written - CAPACITY);
+        }
+        return dropped;
+    }
+
+    /** Every buffered span, per thread in start order (outer spans first), with parents resolved. */
+    private static List<Span> spans() {
+        List<Span> spans = new ArrayList<>();
+        for (Buffer b : buffers) {
+            List<Span> own = b.snapshot();
+            own.sort(Comparator.comparingLong((Span s) -> s.start).thenComparing(s -> -s.end));
+            Deque<Span> open = new ArrayDeque<>();
+            for (Span span : own) {
+                while (!open.isEmpty() && open.peek().end <= span.start) {
+                    open.pop();
+                }
+                span.parent = open.isEmpty() || open.peek().end < span.end ? null : open.peek();
+                open.push(span);
+            }
+            spans.addAll(own);
+        }
+        return spans;
+    }
+
+    private static void writeChrome(Writer out, List<Span> spans) throws IOException {
+        long pid = ProcessHandle.current().pid();
+        out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+        boolean first = true;
+        for (Buffer b : buffers) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":" + pid + ",\"tid\":" + b.threadId
+                    + ",\"args\":{\"name\":" + quote(b.threadName) + "}}");
+        }
+        for (Span span : spans) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("{\"ph\":\"X\",\"name\":" + quote(span.name) + ",\"cat\":" + quote(span.category)
+                    + ",\"pid\":" + pid + ",\"tid\":" + span.threadId
+                    + ",\"ts\":" + micros(epochNanos(span.start)) + ",\"dur\":" + micros(span.end - span.start)
+                    + ",\"args\":{\"device\":" + quote(span.device) + "}}");
+        }
+        out.write("\n]}\n");
+    }
+
+    private static void writeOtlp(Writer out, List<Span> spans) throws IOException {
+        String traceId = hex(ThreadLocalRandom.current().nextLong()) + hex(ThreadLocalRandom.current().nextLong());
+        long nextId = ThreadLocalRandom.current().nextLong() & 0x7fffffffffff0000L;
+        for (Span span : spans) {
+            span.id = ++nextId;
+        }
+        out.write("{\"resourceSpans\":[{\"resource\":{\"attributes\":["
+                + attribute("service.name", "mobile-automation") + ","
+                + "{\"key\":\"process.pid\",\"value\":{\"intValue\":\"" + ProcessHandle.current().pid() + "\"}}"
+                + "]},\"scopeSpans\":[{\"scope\":{\"name\":\"com.automation\"},\"spans\":[");
+        boolean first = true;
+        for (Span span : spans) {
+            out.write(first ? "\n" : ",\n");
+            first = false;
+            out.write("{\"traceId\":\"" + traceId + "\",\"spanId\":\"" + hex(span.id) + "\""
+                    + (span.parent != null ? ",\"parentSpanId\":\"" + hex(span.parent.id) + "\"" : "")
+                    + ",\"name\":" + quote(span.name) + ",\"kind\":1"
+                    + ",\"startTimeUnixNano\":\"" + epochNanos(span.start) + "\""
+                    + ",\"endTimeUnixNano\":\"" + epochNanos(span.end) + "\""
+                    + ",\"attributes\":[" + attribute("category", span.category)
+                    + "," + attribute("thread.id", String.valueOf(span.threadId))
+                    + "," + attribute("thread.name", span.threadName)
+                    + (span.device != null ? "," + attribute("device.id", span.device) : "")
+                    + "]}");
+        }
+        out.write("\n]}]}]}\n");
+    }
+
+    // ======= HELPERS =======
+
+    private static long epochNanos(long nanoTime) {
+        return ORIGIN_EPOCH_NANOS + (nanoTime - ORIGIN_NANOS);
+    }
+
+    private static String micros(long nanos) {
+        return (nanos / 1000) + "." + String.format("%03d", nanos % 1000);
+    }
+
+    private static String hex(long value) {
+        return String.format("%016x", value);
+    }
+
+    private static String attribute(String key, String value) {
+        return "{\"key\":" + quote(key) + ",\"value\":{\"stringValue\":" + quote(value) + "}}";
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Fixed-size span ring of one thread. Only the owning thread writes;
+     * the exporter reads up to the published count once the run is over.
+     */
+    private static final class Buffer {
+
+        private final long threadId;
+        private final String threadName;
+        private final String[] categories = new String[CAPACITY];
+        private final String[] names = new String[CAPACITY];
+        private final String[] devices = new String[CAPACITY];
+        private final long[] starts = new long[CAPACITY];
+        private final long[] ends = new long[CAPACITY];
+        private volatile long written;
+
+        private Buffer(Thread thread) {
+            this.threadId = thread.getId();
+            this.threadName = thread.getName().isEmpty() ? "virtual-" + thread.getId() : thread.getName();
+        }
+
+        private void add(String category, String name, String deviceId, long start, long end) {
+            long count = written;
+            int slot = (int) (count & (CAPACITY - 1));
+            categories[slot] = category;
+            names[slot] = name;
+            devices[slot] = deviceId;
+            starts[slot] = start;
+            ends[slot] = end;
+            written = count + 1;
+        }
+
+        private List<Span> snapshot() {
+            long count = written;
+            List<Span> spans = new ArrayList<>((int) Math.min(count, CAPACITY));
+            for (long i = Math.max(0, count - CAPACITY); i < count; i++) {
+                int slot = (int) (i & (CAPACITY - 1));
+                spans.add(new Span(this, categories[slot], names[slot], devices[slot], starts[slot], ends[slot]));
+            }
+            return spans;
+        }
+    }
+
+    private static final class Span {
+
+        private final long threadId;
+        private final String threadName;
+        private final String category;
+        private final String name;
+        private final String device;
+        private final long start;
+        private final long end;
+        private Span parent;
+        private long id;
+
+        private Span(Buffer buffer, String category, String name, String device, long start, long end) {
+            this.threadId = buffer.threadId;
+            this.threadName = buffer.threadName;
+            this.category = category;
+            this.name = name;
+            this.device = device;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
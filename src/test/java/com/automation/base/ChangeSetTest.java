@@ -0,0 +1,129 @@
+package com.automation.base;
+
+import com.automation.tests.FeatureTests;
+import com.automation.tests.LoginTests;
+import com.automation.tests.NavigationTests;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Unit tests for parsing git diffs and attributing changed lines to methods,
+ * locator fields and classes. Line numbers are looked up in the real sources,
+ * so the tests follow edits to the pages.
+ */
+public class ChangeSetTest {
+
+    private static final String CART_PAGE = "src/main/java/com/automation/pages/CartPage.java";
+
+    private TestImpactIndex index;
+
+    @BeforeClass
+    public void buildIndex() {
+        index = TestImpactIndex.build(Arrays.asList(LoginTests.class, NavigationTests.class, FeatureTests.class));
+    }
+
+    @Test
+    public void parseCollectsChangedFilesFromHeaders() {
+        ChangeSet changes = ChangeSet.parse(Arrays.asList(
+                "diff --git a/testng.xml b/testng.xml",
+                "--- a/testng.xml",
+                "+++ b/testng.xml",
+                "@@ -3 +3 @@",
+                "diff --git a/src/main/java/com/automation/Gone.java b/src/main/java/com/automation/Gone.java",
+                "--- a/src/main/java/com/automation/Gone.java",
+                "+++ /dev/null",
+                "@@ -1,10 +0,0 @@"));
+
+        Assert.assertEquals(changes.changedFiles(),
+                new LinkedHashSet<>(Arrays.asList("testng.xml", "src/main/java/com/automation/Gone.java")));
+    }
+
+    @Test
+    public void resolveMarksFullRunForMatchingFiles() {
+        ChangeSet changes = ChangeSet.parse(diff("testng.xml", 3, 1))
+                .resolve(index, Arrays.asList("pom.xml", "testng.xml"));
+
+        Assert.assertTrue(changes.requiresFullRun());
+        Assert.assertEquals(changes.getFullRunReason(), "testng.xml");
+    }
+
+    @Test
+    public void resolveIgnoresNonSourceFilesOutsideTheFullRunPatterns() {
+        ChangeSet changes = ChangeSet.parse(diff("README.md", 10, 2)).resolve(index, Collections.singletonList("pom.xml"));
+
+        Assert.assertFalse(changes.requiresFullRun());
+        Assert.assertTrue(changes.changedClasses().isEmpty());
+    }
+
+    @Test
+    public void resolveAttributesMethodBodyLinesToTheMethod() throws IOException {
+        int line = lineOf(CART_PAGE, "return waits.probe(noItemsText);");
+        ChangeSet changes = ChangeSet.parse(diff(CART_PAGE, line, 1)).resolve(index, Collections.emptyList());
+
+        Assert.assertEquals(changes.changedMethods(), Collections.singleton("com.automation.pages.CartPage#isCartEmpty"));
+        Assert.assertTrue(changes.changedClasses().isEmpty());
+        Assert.assertTrue(changes.changedFields().isEmpty());
+    }
+
+    @Test
+    public void resolveAttributesLocatorAnnotationLinesToTheField() throws IOException {
+        int line = lineOf(CART_PAGE, "private WebElement cartTitle;") - 1;
+        ChangeSet changes = ChangeSet.parse(diff(CART_PAGE, line, 1)).resolve(index, Collections.emptyList());
+
+        Assert.assertEquals(changes.changedFields(), Collections.singleton("com.automation.pages.CartPage.cartTitle"));
+        Assert.assertTrue(changes.changedMethods().isEmpty());
+    }
+
+    @Test
+    public void resolveTreatsOtherLinesAsClassWide() throws IOException {
+        int line = lineOf(CART_PAGE, "import ");
+        ChangeSet changes = ChangeSet.parse(diff(CART_PAGE, line, 1)).resolve(index, Collections.emptyList());
+
+        Assert.assertEquals(changes.changedClasses(), Collections.singleton("com.automation.pages.CartPage"));
+    }
+
+    @Test
+    public void resolveTreatsUnknownSourcesAsChangedClasses() {
+        String file = "src/main/java/com/automation/pages/CheckoutPage.java";
+        ChangeSet changes = ChangeSet.parse(diff(file, 1, 40)).resolve(index, Collections.emptyList());
+
+        Assert.assertEquals(changes.changedClasses(), Collections.singleton("com.automation.pages.CheckoutPage"));
+    }
+
+    @Test
+    public void pureDeletionBlamesBothNeighbours() throws IOException {
+        int first = lineOf(CART_PAGE, "private WebElement cartTitle;");
+        ChangeSet changes = ChangeSet.parse(Arrays.asList("+++ b/" + CART_PAGE, "@@ -20,2 +" + first + ",0 @@"))
+                .resolve(index, Collections.emptyList());
+
+        Assert.assertTrue(changes.changedFields().contains("com.automation.pages.CartPage.cartTitle"));
+        Assert.assertTrue(changes.changedClasses().contains("com.automation.pages.CartPage"));
+    }
+
+    // ======= HELPERS =======
+
+    static List<String> diff(String file, int start, int count) {
+        return Arrays.asList("diff --git a/" + file + " b/" + file, "--- a/" + file, "+++ b/" + file,
+                "@@ -" + start + "," + count + " +" + start + "," + count + " @@");
+    }
+
+    static int lineOf(String file, String text) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).contains(text)) {
+                return i + 1;
+            }
+        }
+        throw new IllegalStateException(text + " not found in " + file);
+    }
+}
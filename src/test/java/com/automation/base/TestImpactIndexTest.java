@@ -0,0 +1,85 @@
+package com.automation.base;
+
+import com.automation.tests.FeatureTests;
+import com.automation.tests.LoginTests;
+import com.automation.tests.NavigationTests;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Unit tests for which tests the impact index selects for a change, built
+ * from the bytecode of the real test classes.
+ */
+public class TestImpactIndexTest {
+
+    private static final String CART_PAGE = "src/main/java/com/automation/pages/CartPage.java";
+    private static final String PRODUCT_PAGE = "src/main/java/com/automation/pages/ProductPage.java";
+
+    private TestImpactIndex index;
+
+    @BeforeClass
+    public void buildIndex() {
+        index = TestImpactIndex.build(Arrays.asList(LoginTests.class, NavigationTests.class, FeatureTests.class));
+    }
+
+    @Test
+    public void indexesEveryTestMethod() {
+        Assert.assertTrue(index.testIds().contains("com.automation.tests.LoginTests#tc01_verifyLoginPageDisplayed"));
+        Assert.assertTrue(index.testIds().contains("com.automation.tests.FeatureTests#tc08_addProductToCart"));
+        Assert.assertFalse(index.testIds().contains("com.automation.tests.LoginTests#initPages"));
+    }
+
+    @Test
+    public void screenMarkerChangeImpactsEveryTestThatNavigates() throws IOException {
+        // Navigator reads every @Screen marker reflectively while detecting the current screen
+        Set<String> impacted = impactedByLocator(CART_PAGE, "private WebElement cartTitle;");
+
+        Assert.assertEquals(impacted, index.testIds());
+    }
+
+    @Test
+    public void markerOfAnotherScreenImpactsTestsThatNeverOpenIt() throws IOException {
+        Set<String> impacted = impactedByLocator(PRODUCT_PAGE, "private WebElement productTitle;");
+
+        Assert.assertTrue(impacted.contains("com.automation.tests.LoginTests#tc01_verifyLoginPageDisplayed"));
+    }
+
+    @Test
+    public void plainLocatorChangeImpactsOnlyTestsReadingIt() throws IOException {
+        Set<String> impacted = impactedByLocator(CART_PAGE, "private WebElement checkoutButton;");
+
+        Assert.assertTrue(impacted.contains("com.automation.tests.FeatureTests#tc08_addProductToCart"));
+        Assert.assertFalse(impacted.contains("com.automation.tests.LoginTests#tc01_verifyLoginPageDisplayed"));
+    }
+
+    @Test
+    public void methodChangeImpactsOnlyItsCallers() throws IOException {
+        int line = ChangeSetTest.lineOf(CART_PAGE, "return waits.probe(checkoutButton);");
+        Set<String> impacted = index.impactedBy(
+                ChangeSet.parse(ChangeSetTest.diff(CART_PAGE, line, 1)).resolve(index, Collections.emptyList()));
+
+        Assert.assertEquals(impacted, Collections.singleton("com.automation.tests.FeatureTests#tc08_addProductToCart"));
+    }
+
+    @Test
+    public void classWideChangeImpactsEveryTestReachingTheClass() throws IOException {
+        int line = ChangeSetTest.lineOf(CART_PAGE, "import ");
+        Set<String> impacted = index.impactedBy(
+                ChangeSet.parse(ChangeSetTest.diff(CART_PAGE, line, 1)).resolve(index, Collections.emptyList()));
+
+        Assert.assertEquals(impacted, index.testIds());
+    }
+
+    private Set<String> impactedByLocator(String file, String declaration) throws IOException {
+        int annotation = ChangeSetTest.lineOf(file, declaration) - 1;
+        ChangeSet changes = ChangeSet.parse(ChangeSetTest.diff(file, annotation, 1)).resolve(index, Collections.emptyList());
+        Assert.assertEquals(changes.changedFields().size(), 1, "expected a locator-only change: " + changes);
+        return index.impactedBy(changes);
+    }
+}
@@ -1,7 +1,10 @@
 package com.automation.tests;
 
+import com.automation.base.AppReset;
 import com.automation.base.BaseTest;
+import com.automation.base.ResetStrategy;
 import com.automation.pages.HomePage;
+import com.automation.pages.Pages;
 import com.automation.pages.ProductPage;
 import com.automation.pages.CartPage;
 import com.automation.pages.LoginPage;
@@ -15,6 +18,7 @@ import org.testng.annotations.Test;
  * Tests add-to-cart, cart display, and product details functionality.
  * Each test is independent with proper assertions.
  */
+@AppReset(ResetStrategy.DEEP_LINK) // every test starts from the catalog
 public class FeatureTests extends BaseTest {
 
     private LoginPage loginPage;
@@ -24,10 +28,10 @@ public class FeatureTests extends BaseTest {
 
     @BeforeMethod
     public void initPages() {
-        loginPage   = new LoginPage(driver);
-        homePage    = new HomePage(driver);
-        productPage = new ProductPage(driver);
-        cartPage    = new CartPage(driver);
+        loginPage   = Pages.get(driver, LoginPage.class);
+        homePage    = Pages.get(driver, HomePage.class);
+        productPage = Pages.get(driver, ProductPage.class);
+        cartPage    = Pages.get(driver, CartPage.class);
     }
 
     /**
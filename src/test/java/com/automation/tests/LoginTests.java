@@ -1,18 +1,28 @@
 package com.automation.tests;
 
+import com.automation.base.AppReset;
 import com.automation.base.BaseTest;
+import com.automation.base.DataFile;
+import com.automation.base.DataProviders;
+import com.automation.base.ResetStrategy;
 import com.automation.pages.LoginPage;
 import com.automation.pages.HomePage;
+import com.automation.pages.Navigator;
+import com.automation.pages.Pages;
 import com.automation.utils.AppiumUtils;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.Map;
+
 /**
- * Test class for Login functionality (TC01 - TC04).
- * Tests login screen display, valid login, invalid login, and empty credentials.
+ * Test class for Login functionality (TC01 - TC04, TC11).
+ * Tests login screen display, valid login, invalid login, empty credentials,
+ * and a data-driven matrix of credential combinations.
  * Each test is independent and uses proper TestNG assertions.
  */
+@AppReset(ResetStrategy.CLEAR_DATA) // every test starts logged out
 public class LoginTests extends BaseTest {
 
     private LoginPage loginPage;
@@ -20,10 +30,9 @@ public class LoginTests extends BaseTest {
 
     @BeforeMethod
     public void initPages() {
-        loginPage = new LoginPage(driver);
-        homePage  = new HomePage(driver);
-        // Navigate to login via menu (app opens on catalog by default)
-        homePage.navigateToLogin();
+        homePage  = Pages.get(driver, HomePage.class);
+        // Cheapest route to login (deep link or menu); no-op if already there
+        loginPage = new Navigator(driver).navigateTo(LoginPage.class);
     }
 
     /**
@@ -84,4 +93,36 @@ public class LoginTests extends BaseTest {
         Assert.assertTrue(loginPage.isUsernameRequiredErrorDisplayed(),
                 "Username required error should appear for empty username");
     }
+
+    /**
+     * TC11 - Verify the login outcome for each row of the credentials dataset.
+     * Rows (username, password, expected) stream from testdata/credentials.csv;
+     * point data.dir at a larger dataset to run a bigger matrix.
+     */
+    @Test(priority = 5, dataProvider = DataProviders.DATA_FILE, dataProviderClass = DataProviders.class,
+            description = "TC11: Verify login outcome for each credentials row")
+    @DataFile("credentials.csv")
+    public void tc11_loginMatrix(Map<String, String> row) {
+        loginPage.login(row.get("username"), row.get("password"));
+
+        String expected = row.get("expected");
+        switch (expected) {
+            case "home":
+                Assert.assertTrue(homePage.isHomePageDisplayed(), "Home page should appear for " + row);
+                break;
+            case "credentials_error":
+                Assert.assertTrue(loginPage.isErrorMessageDisplayed(), "Error message should appear for " + row);
+                break;
+            case "username_required":
+                Assert.assertTrue(loginPage.isUsernameRequiredErrorDisplayed(),
+                        "Username required error should appear for " + row);
+                break;
+            case "password_required":
+                Assert.assertTrue(loginPage.isPasswordRequiredErrorDisplayed(),
+                        "Password required error should appear for " + row);
+                break;
+            default:
+                Assert.fail("Unknown expected outcome '" + expected + "' in " + row);
+        }
+    }
 }
@@ -1,11 +1,16 @@
 package com.automation.tests;
 
+import com.automation.base.AppReset;
 import com.automation.base.BaseTest;
+import com.automation.base.Invalidates;
+import com.automation.base.Precondition;
+import com.automation.base.Requires;
+import com.automation.base.ResetStrategy;
 import com.automation.pages.LoginPage;
 import com.automation.pages.HomePage;
+import com.automation.pages.Pages;
 import com.automation.pages.ProductPage;
 import com.automation.pages.CartPage;
-import com.automation.utils.AppiumUtils;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -15,6 +20,7 @@ import org.testng.annotations.Test;
  * Tests home page display, product navigation, and logout flow.
  * Each test is independent with fresh page object initialization.
  */
+@AppReset(ResetStrategy.DEEP_LINK) // every test starts from the catalog
 public class NavigationTests extends BaseTest {
 
     private LoginPage loginPage;
@@ -24,10 +30,10 @@ public class NavigationTests extends BaseTest {
 
     @BeforeMethod
     public void initPages() {
-        loginPage   = new LoginPage(driver);
-        homePage    = new HomePage(driver);
-        productPage = new ProductPage(driver);
-        cartPage    = new CartPage(driver);
+        loginPage   = Pages.get(driver, LoginPage.class);
+        homePage    = Pages.get(driver, HomePage.class);
+        productPage = Pages.get(driver, ProductPage.class);
+        cartPage    = Pages.get(driver, CartPage.class);
     }
 
     /**
@@ -62,17 +68,13 @@ public class NavigationTests extends BaseTest {
 
     /**
      * TC07 - Verify logout returns user to catalog and clears session.
-     * Logs in first, then logs out and verifies return to catalog.
+     * Starts logged in (shared fixture), logs out and verifies return to catalog.
      */
     @Test(priority = 3, description = "TC07: Verify logout navigates back to catalog")
+    @Requires(Precondition.LOGGED_IN)
+    @Invalidates(Precondition.LOGGED_IN)
     public void tc07_logoutReturnsToHome() {
-        // Login first
-        homePage.navigateToLogin();
-        String validUser = AppiumUtils.getProperty("valid.username");
-        String validPass = AppiumUtils.getProperty("valid.password");
-        loginPage.login(validUser, validPass);
-
-        // Verify we are on home page after login
+        // Verify we are on home page while logged in
         Assert.assertTrue(homePage.isHomePageDisplayed(),
                 "Home page should be visible after login");
 